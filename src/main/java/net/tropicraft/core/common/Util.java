@@ -2,16 +2,14 @@ package net.tropicraft.core.common;
 
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.util.Mth;
 import net.minecraft.world.entity.Entity;
-import net.minecraft.world.entity.LivingEntity;
 import net.minecraft.world.entity.Mob;
-import net.minecraft.world.entity.ai.attributes.Attributes;
 import net.minecraft.world.level.Level;
-import net.minecraft.world.level.block.Block;
-import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.level.levelgen.Heightmap;
 import net.minecraft.world.level.material.Material;
+import net.tropicraft.core.common.entity.ai.LongDistancePathPlanner;
 import org.apache.commons.lang3.StringUtils;
 
 import javax.annotation.Nullable;
@@ -45,104 +43,16 @@ public class Util {
     }
 
     /**
-     * From CoroUtilPath
-     * If close enough, paths to coords, if too far based on attribute, tries to find best spot towards target to pathfind to
+     * If close enough, paths to coords, if too far based on attribute, paths to the next waypoint towards the target
+     * as planned by {@link LongDistancePathPlanner}
      *
-     * @param ent
-     * @param x
-     * @param y
-     * @param z
-     * @param moveSpeedAmp
-     * @return
+     * @return true if a path was started
      */
     public static boolean tryMoveToXYZLongDist(Mob ent, int x, int y, int z, double moveSpeedAmp) {
-
-        Level world = ent.level;
-
-        boolean success = false;
-
-        if (ent.getNavigation().isDone()) {
-
-            double distToPlayer = getDistance(ent, x, y, z);//ent.getDistanceToEntity(player);
-
-            double followDist = ent.getAttribute(Attributes.FOLLOW_RANGE).getValue();
-
-            if (distToPlayer <= followDist) {
-                //boolean success = ent.getNavigator().tryMoveToEntityLiving(player, moveSpeedAmp);
-                success = ent.getNavigation().moveTo(x, y, z, moveSpeedAmp);
-                //System.out.println("success? " + success + "- move to player: " + ent + " -> " + player);
-            } else {
-                /*int x = MathHelper.floor(player.posX);
-                int y = MathHelper.floor(player.posY);
-                int z = MathHelper.floor(player.posZ);*/
-
-                double d = x+0.5F - ent.getX();
-                double d2 = z+0.5F - ent.getZ();
-                double d1;
-                d1 = y+0.5F - (ent.getY() + (double)ent.getEyeHeight());
-
-                double d3 = Mth.sqrt((float) (d * d + d2 * d2));
-                float f2 = (float)((Math.atan2(d2, d) * 180D) / 3.1415927410125732D) - 90F;
-                float f3 = (float)(-((Math.atan2(d1, d3) * 180D) / 3.1415927410125732D));
-                float rotationPitch = -f3;//-ent.updateRotation(rotationPitch, f3, 180D);
-                float rotationYaw = f2;//updateRotation(rotationYaw, f2, 180D);
-
-                LivingEntity center = ent;
-
-                Random rand = world.random;
-
-                float randLook = rand.nextInt(90)-45;
-                //int height = 10;
-                double dist = (followDist * 0.75D) + rand.nextInt((int)followDist / 2);//rand.nextInt(26)+(queue.get(0).retryState * 6);
-                int gatherX = (int)Math.floor(center.getX() + ((double)(-Math.sin((rotationYaw+randLook) / 180.0F * 3.1415927F)/* * Math.cos(center.rotationPitch / 180.0F * 3.1415927F)*/) * dist));
-                int gatherY = (int)center.getY();//Math.floor(center.posY-0.5 + (double)(-MathHelper.sin(center.rotationPitch / 180.0F * 3.1415927F) * dist) - 0D); //center.posY - 0D;
-                int gatherZ = (int)Math.floor(center.getZ() + ((double)(Math.cos((rotationYaw+randLook) / 180.0F * 3.1415927F)/* * Math.cos(center.rotationPitch / 180.0F * 3.1415927F)*/) * dist));
-
-                BlockPos pos = new BlockPos(gatherX, gatherY, gatherZ);
-
-                if (!world.hasChunkAt(pos)) return false;
-
-                BlockState state = world.getBlockState(pos);
-                Block block = state.getBlock();
-                int tries = 0;
-                if (!world.isEmptyBlock(pos)) {
-                    //int offset = -5;
-
-                    while (tries < 30) {
-                        if (world.isEmptyBlock(pos) && world.isEmptyBlock(pos.above())/* || !block.isSideSolid(block.defaultBlockState(), world, new BlockPos(gatherX, gatherY, gatherZ), EnumFacing.UP)*/) {
-                            break;
-                        }
-                        gatherY += 1;//offset++;
-                        pos = new BlockPos(gatherX, gatherY, gatherZ);
-                        state = world.getBlockState(pos);
-                        block = state.getBlock();
-                        tries++;
-                    }
-                } else {
-                    //int offset = 0;
-                    while (tries < 30) {
-                        if (!world.isEmptyBlock(pos) && (state.getMaterial().isSolid() || world.getBlockState(pos).getMaterial() == Material.WATER)) {
-                            break;
-                        }
-                        gatherY -= 1;//offset++;
-                        pos = new BlockPos(gatherX, gatherY, gatherZ);
-                        state = world.getBlockState(pos);
-                        block = state.getBlock();
-                        tries++;
-                    }
-                }
-
-                if (tries < 30) {
-                    /*if (world.getBlockState(pos).getMaterial() == Material.WATER) {
-                        gatherY--;
-                    }*/
-                    success = ent.getNavigation().moveTo(gatherX, gatherY, gatherZ, moveSpeedAmp);
-                    //System.out.println("pp success? " + success + "- move to player: " + ent + " -> " + player);
-                }
-            }
+        if (!ent.getNavigation().isDone() || !(ent.level instanceof ServerLevel level)) {
+            return false;
         }
-
-        return success;
+        return LongDistancePathPlanner.get(level).moveTo(level, ent, x, y, z, moveSpeedAmp);
     }
 
     public static BlockPos findBlock(Mob entity, int scanRange, BiPredicate<Level, BlockPos> predicate) {
@@ -167,7 +77,7 @@ public class Util {
             tryX = Mth.floor(entity.getX()) + (entity.level.random.nextInt(scanSize)-scanSize/2);
             int i = tryY + entity.level.random.nextInt(scanSizeY)-(scanSizeY/2);
             tryZ = Mth.floor(entity.getZ()) + entity.level.random.nextInt(scanSize)-scanSize/2;
-            BlockPos posTry = new BlockPos(tryX, tryY, tryZ);
+            BlockPos.MutableBlockPos posTry = new BlockPos.MutableBlockPos(tryX, tryY, tryZ);
 
             boolean foundBlock = false;
             int newY = i;
@@ -177,7 +87,7 @@ public class Util {
                 int tryMax = adjustRangeY;
                 while (!entity.level.isEmptyBlock(posTry) && tryMax-- > 0) {
                     newY++;
-                    posTry = new BlockPos(tryX, newY, tryZ);
+                    posTry.setY(newY);
                 }
 
                 //if found air and water below it
@@ -185,7 +95,7 @@ public class Util {
                     foundWater = true;
                 }*/
 
-                if (entity.level.isEmptyBlock(posTry) && predicate.test(entity.level, posTry.offset(0, -1, 0))) {
+                if (entity.level.isEmptyBlock(posTry) && predicate.test(entity.level, posTry.below())) {
                     foundBlock = true;
                 }
             } else {
@@ -193,18 +103,18 @@ public class Util {
                 int tryMax = adjustRangeY;
                 while (entity.level.isEmptyBlock(posTry) && tryMax-- > 0) {
                     newY--;
-                    posTry = new BlockPos(tryX, newY, tryZ);
+                    posTry.setY(newY);
                 }
                 /*if (!entity.world.isAirBlock(posTry) && entity.world.getBlockState(posTry.add(0, 1, 0)).getMaterial().isLiquid()) {
                     foundWater = true;
                 }*/
-                if (entity.level.isEmptyBlock(posTry.offset(0, 1, 0)) && predicate.test(entity.level, posTry)) {
+                if (entity.level.isEmptyBlock(posTry.above()) && predicate.test(entity.level, posTry)) {
                     foundBlock = true;
                 }
             }
 
             if (foundBlock) {
-                return posTry;
+                return posTry.immutable();
             }
         }
 
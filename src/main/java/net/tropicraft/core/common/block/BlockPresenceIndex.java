@@ -0,0 +1,210 @@
+package net.tropicraft.core.common.block;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraftforge.event.world.BlockEvent;
+import net.minecraftforge.event.world.ChunkEvent;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.tropicraft.Constants;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Where one kind of block is in a level, one bit per block, so random ticks that keep their growth spread out can
+ * check a box around them without reading every block state in it.
+ * <p>
+ * A section is only looked at the first time it is asked about, and sections without the block share a single
+ * empty bitmap. Bits are kept up to date as blocks are placed and broken, and sections are dropped when their chunk
+ * unloads.
+ * <p>
+ * Changes made without notifying neighbours (such as {@code /setblock}, {@code /fill} or structures placing blocks)
+ * aren't seen. A section that claims to have the block where it's gone is built again from the chunk when that bit
+ * is found, but a block added that way stays unknown until its section is built again.
+ */
+@Mod.EventBusSubscriber(modid = Constants.MODID)
+public final class BlockPresenceIndex {
+    private static final long[] EMPTY = new long[16 * 16 * 16 / Long.SIZE];
+
+    // Only touched from the server thread
+    private static final Map<ResourceKey<Level>, Map<Block, BlockPresenceIndex>> INDICES = new HashMap<>();
+
+    private final Block block;
+    private final Long2ObjectMap<long[]> sections = new Long2ObjectOpenHashMap<>();
+
+    private BlockPresenceIndex(Block block) {
+        this.block = block;
+    }
+
+    public static BlockPresenceIndex get(ServerLevel level, Block block) {
+        return INDICES.computeIfAbsent(level.dimension(), k -> new IdentityHashMap<>())
+                .computeIfAbsent(block, BlockPresenceIndex::new);
+    }
+
+    @SubscribeEvent
+    public static void onBlockChanged(BlockEvent.NeighborNotifyEvent event) {
+        if (event.getWorld() instanceof ServerLevel level) {
+            Map<Block, BlockPresenceIndex> indices = INDICES.get(level.dimension());
+            if (indices != null) {
+                for (BlockPresenceIndex index : indices.values()) {
+                    index.update(event.getPos(), event.getState());
+                }
+            }
+        }
+    }
+
+    @SubscribeEvent
+    public static void onChunkUnload(ChunkEvent.Unload event) {
+        if (event.getWorld() instanceof ServerLevel level) {
+            Map<Block, BlockPresenceIndex> indices = INDICES.get(level.dimension());
+            if (indices != null) {
+                ChunkPos chunkPos = event.getChunk().getPos();
+                for (BlockPresenceIndex index : indices.values()) {
+                    for (int sectionY = event.getChunk().getMinSection(); sectionY < event.getChunk().getMaxSection(); sectionY++) {
+                        index.sections.remove(SectionPos.asLong(chunkPos.x, sectionY, chunkPos.z));
+                    }
+                }
+            }
+        }
+    }
+
+    @SubscribeEvent
+    public static void onWorldUnload(WorldEvent.Unload event) {
+        if (event.getWorld() instanceof ServerLevel level) {
+            INDICES.remove(level.dimension());
+        }
+    }
+
+    /**
+     * @return whether the block is anywhere in the given box, bounds inclusive. Chunks that aren't loaded count as
+     * not having it.
+     */
+    public boolean containsAny(ServerLevel level, BlockPos min, BlockPos max) {
+        for (int sectionX = SectionPos.blockToSectionCoord(min.getX()); sectionX <= SectionPos.blockToSectionCoord(max.getX()); sectionX++) {
+            for (int sectionZ = SectionPos.blockToSectionCoord(min.getZ()); sectionZ <= SectionPos.blockToSectionCoord(max.getZ()); sectionZ++) {
+                for (int sectionY = SectionPos.blockToSectionCoord(min.getY()); sectionY <= SectionPos.blockToSectionCoord(max.getY()); sectionY++) {
+                    long[] bits = this.getSection(level, sectionX, sectionY, sectionZ);
+                    int index = bits != EMPTY ? findAny(bits, sectionX, sectionY, sectionZ, min, max) : -1;
+                    if (index == -1) {
+                        continue;
+                    }
+
+                    int x = SectionPos.sectionToBlockCoord(sectionX) + (index & 15);
+                    int y = SectionPos.sectionToBlockCoord(sectionY) + (index >> 8);
+                    int z = SectionPos.sectionToBlockCoord(sectionZ) + (index >> 4 & 15);
+                    if (level.getBlockState(new BlockPos(x, y, z)).is(this.block)) {
+                        return true;
+                    }
+
+                    // Changed behind our back, build the section again and trust that instead
+                    this.sections.remove(SectionPos.asLong(sectionX, sectionY, sectionZ));
+                    bits = this.getSection(level, sectionX, sectionY, sectionZ);
+                    if (bits != EMPTY && findAny(bits, sectionX, sectionY, sectionZ, min, max) != -1) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the index of the first set bit within the box, or -1 if there is none
+     */
+    private static int findAny(long[] bits, int sectionX, int sectionY, int sectionZ, BlockPos min, BlockPos max) {
+        int minX = Math.max(min.getX() - SectionPos.sectionToBlockCoord(sectionX), 0);
+        int minY = Math.max(min.getY() - SectionPos.sectionToBlockCoord(sectionY), 0);
+        int minZ = Math.max(min.getZ() - SectionPos.sectionToBlockCoord(sectionZ), 0);
+        int maxX = Math.min(max.getX() - SectionPos.sectionToBlockCoord(sectionX), 15);
+        int maxY = Math.min(max.getY() - SectionPos.sectionToBlockCoord(sectionY), 15);
+        int maxZ = Math.min(max.getZ() - SectionPos.sectionToBlockCoord(sectionZ), 15);
+
+        for (int y = minY; y <= maxY; y++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                for (int x = minX; x <= maxX; x++) {
+                    int index = y << 8 | z << 4 | x;
+                    if ((bits[index >> 6] & 1L << index) != 0) {
+                        return index;
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    private long[] getSection(ServerLevel level, int sectionX, int sectionY, int sectionZ) {
+        long sectionKey = SectionPos.asLong(sectionX, sectionY, sectionZ);
+        long[] bits = this.sections.get(sectionKey);
+        if (bits == null) {
+            LevelChunk chunk = level.getChunkSource().getChunkNow(sectionX, sectionZ);
+            if (chunk == null) {
+                return EMPTY;
+            }
+            bits = this.build(chunk, sectionY);
+            this.sections.put(sectionKey, bits);
+        }
+        return bits;
+    }
+
+    private void update(BlockPos pos, BlockState state) {
+        long sectionKey = SectionPos.asLong(pos);
+        long[] bits = this.sections.get(sectionKey);
+        if (bits == null) {
+            // Not looked at yet, it'll be built from the chunk when it is
+            return;
+        }
+
+        boolean present = state.is(this.block);
+        if (bits == EMPTY) {
+            if (!present) {
+                return;
+            }
+            bits = new long[EMPTY.length];
+            this.sections.put(sectionKey, bits);
+        }
+
+        int index = (pos.getY() & 15) << 8 | (pos.getZ() & 15) << 4 | (pos.getX() & 15);
+        if (present) {
+            bits[index >> 6] |= 1L << index;
+        } else {
+            bits[index >> 6] &= ~(1L << index);
+        }
+    }
+
+    private long[] build(LevelChunk chunk, int sectionY) {
+        if (sectionY < chunk.getMinSection() || sectionY >= chunk.getMaxSection()) {
+            return EMPTY;
+        }
+
+        LevelChunkSection section = chunk.getSection(chunk.getSectionIndexFromSectionY(sectionY));
+        if (section.hasOnlyAir() || !section.maybeHas(state -> state.is(this.block))) {
+            return EMPTY;
+        }
+
+        long[] bits = new long[EMPTY.length];
+        for (int y = 0; y < 16; y++) {
+            for (int z = 0; z < 16; z++) {
+                for (int x = 0; x < 16; x++) {
+                    if (section.getBlockState(x, y, z).is(this.block)) {
+                        int index = y << 8 | z << 4 | x;
+                        bits[index >> 6] |= 1L << index;
+                    }
+                }
+            }
+        }
+        return bits;
+    }
+}
@@ -46,12 +46,7 @@ public class MangroveLeavesBlock extends LeavesBlock {
     }
 
     private boolean hasNearPropagule(ServerLevel world, BlockPos source) {
-        PropaguleBlock propagule = this.propaguleBlock.get();
-        for (BlockPos pos : BlockPos.betweenClosed(source.offset(-SPACING, -SPACING, -SPACING), source.offset(SPACING, 0, SPACING))) {
-            if (world.getBlockState(pos).is(propagule)) {
-                return true;
-            }
-        }
-        return false;
+        BlockPresenceIndex propagules = BlockPresenceIndex.get(world, this.propaguleBlock.get());
+        return propagules.containsAny(world, source.offset(-SPACING, -SPACING, -SPACING), source.offset(SPACING, 0, SPACING));
     }
 }
@@ -287,17 +287,11 @@ public final class MangroveRootsBlock extends Block implements SimpleWaterlogged
     }
 
     private boolean hasNearPianguas(ServerLevel world, BlockPos source) {
-        Block mudWithPianguas = TropicraftBlocks.MUD_WITH_PIANGUAS.get();
+        BlockPresenceIndex pianguas = BlockPresenceIndex.get(world, TropicraftBlocks.MUD_WITH_PIANGUAS.get());
         BlockPos minSpacingPos = source.offset(-PIANGUA_RADIUS, -PIANGUA_RADIUS, -PIANGUA_RADIUS);
         BlockPos maxSpacingPos = source.offset(PIANGUA_RADIUS, 0, PIANGUA_RADIUS);
 
-        for (BlockPos pos : BlockPos.betweenClosed(minSpacingPos, maxSpacingPos)) {
-            if (world.getBlockState(pos).is(mudWithPianguas)) {
-                return true;
-            }
-        }
-
-        return false;
+        return pianguas.containsAny(world, minSpacingPos, maxSpacingPos);
     }
 
     public enum Connection implements StringRepresentable {
@@ -2,6 +2,7 @@ package net.tropicraft.core.common.block;
 
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.particles.ParticleTypes;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.level.Level;
@@ -9,6 +10,7 @@ import net.minecraft.world.level.block.LiquidBlock;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.level.material.Fluids;
 import net.tropicraft.core.common.dimension.TropicraftDimension;
+import net.tropicraft.core.common.dimension.TropicsPortalRegistry;
 
 import java.util.Random;
 
@@ -31,6 +33,14 @@ public class PortalWaterBlock extends LiquidBlock {
         }
     }
 
+    @Override
+    public void onRemove(BlockState state, Level worldIn, BlockPos pos, BlockState newState, boolean isMoving) {
+        super.onRemove(state, worldIn, pos, newState, isMoving);
+        if (worldIn instanceof ServerLevel serverLevel && !newState.is(this)) {
+            TropicsPortalRegistry.get(serverLevel).onPortalRemoved(serverLevel, pos);
+        }
+    }
+
     @Override
     public void animateTick(BlockState stateIn, Level worldIn, BlockPos pos, Random rand) {
         if (rand.nextInt(2) == 0) {
@@ -2,6 +2,7 @@ package net.tropicraft.core.common.block.huge_plant;
 
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.sounds.SoundSource;
 import net.minecraft.util.StringRepresentable;
 import net.minecraft.world.entity.LivingEntity;
@@ -73,7 +74,7 @@ public final class HugePlantBlock extends BushBlock {
 
     @Override
     public BlockState updateShape(BlockState state, Direction facing, BlockState facingState, LevelAccessor world, BlockPos pos, BlockPos facingPos) {
-        Shape shape = Shape.match(this, world, pos);
+        Shape shape = this.matchShape(world, pos);
         if (shape == null) {
             return Blocks.AIR.defaultBlockState();
         }
@@ -101,8 +102,32 @@ public final class HugePlantBlock extends BushBlock {
 
             return super.canSurvive(state, world, pos);
         } else {
-            return Shape.match(this, world, pos) != null;
+            return this.matchShape(world, pos) != null;
+        }
+    }
+
+    @Nullable
+    private Shape matchShape(BlockGetter world, BlockPos pos) {
+        if (world instanceof ServerLevel serverLevel) {
+            return HugePlantShapeCache.match(this, serverLevel, pos);
+        }
+        return Shape.match(this, world, pos);
+    }
+
+    @Override
+    public void onPlace(BlockState state, Level world, BlockPos pos, BlockState oldState, boolean isMoving) {
+        super.onPlace(state, world, pos, oldState, isMoving);
+        if (!oldState.is(this) && world instanceof ServerLevel serverLevel) {
+            HugePlantShapeCache.onPlaced(serverLevel);
+        }
+    }
+
+    @Override
+    public void onRemove(BlockState state, Level world, BlockPos pos, BlockState newState, boolean isMoving) {
+        if (!newState.is(this) && world instanceof ServerLevel serverLevel) {
+            HugePlantShapeCache.onRemoved(serverLevel, pos);
         }
+        super.onRemove(state, world, pos, newState, isMoving);
     }
 
     private boolean isValidPositionToPlace(LevelReader world, BlockPos pos) {
@@ -0,0 +1,96 @@
+package net.tropicraft.core.common.block.huge_plant;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.Block;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.tropicraft.Constants;
+
+import javax.annotation.Nullable;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Remembers which plant each huge plant block belongs to for the rest of the tick, so that a wave of neighbour
+ * updates running through one plant only matches and validates it once instead of once per block per update.
+ * <p>
+ * Matches are shared by every block of the plant. They are forgotten as soon as a block of the plant is removed, and
+ * everything is forgotten when a huge plant block is placed, since that can complete a plant.
+ */
+@Mod.EventBusSubscriber(modid = Constants.MODID)
+final class HugePlantShapeCache {
+    // Only touched from the server thread
+    private static final Map<ResourceKey<Level>, HugePlantShapeCache> CACHES = new HashMap<>();
+
+    private final Long2ObjectMap<HugePlantBlock.Shape> matched = new Long2ObjectOpenHashMap<>();
+    private final LongSet unmatched = new LongOpenHashSet();
+    private long gameTime = Long.MIN_VALUE;
+
+    @SubscribeEvent
+    public static void onWorldUnload(WorldEvent.Unload event) {
+        if (event.getWorld() instanceof ServerLevel level) {
+            CACHES.remove(level.dimension());
+        }
+    }
+
+    @Nullable
+    static HugePlantBlock.Shape match(Block block, ServerLevel level, BlockPos pos) {
+        HugePlantShapeCache cache = CACHES.computeIfAbsent(level.dimension(), k -> new HugePlantShapeCache());
+        if (cache.gameTime != level.getGameTime()) {
+            cache.clear();
+            cache.gameTime = level.getGameTime();
+        }
+        return cache.lookup(block, level, pos);
+    }
+
+    static void onPlaced(ServerLevel level) {
+        HugePlantShapeCache cache = CACHES.get(level.dimension());
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    static void onRemoved(ServerLevel level, BlockPos pos) {
+        HugePlantShapeCache cache = CACHES.get(level.dimension());
+        if (cache != null) {
+            HugePlantBlock.Shape shape = cache.matched.get(pos.asLong());
+            if (shape != null) {
+                for (BlockPos plantPos : shape) {
+                    cache.matched.remove(plantPos.asLong());
+                }
+            }
+        }
+    }
+
+    @Nullable
+    private HugePlantBlock.Shape lookup(Block block, ServerLevel level, BlockPos pos) {
+        long key = pos.asLong();
+        HugePlantBlock.Shape shape = this.matched.get(key);
+        if (shape != null || this.unmatched.contains(key)) {
+            return shape;
+        }
+
+        shape = HugePlantBlock.Shape.match(block, level, pos);
+        if (shape != null) {
+            for (BlockPos plantPos : shape) {
+                this.matched.put(plantPos.asLong(), shape);
+            }
+        } else {
+            this.unmatched.add(key);
+        }
+        return shape;
+    }
+
+    private void clear() {
+        this.matched.clear();
+        this.unmatched.clear();
+    }
+}
@@ -3,25 +3,23 @@ package net.tropicraft.core.common.block.tileentity;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.nbt.CompoundTag;
-import net.minecraft.network.Connection;
-import net.minecraft.network.protocol.Packet;
-import net.minecraft.network.protocol.game.ClientGamePacketListener;
-import net.minecraft.network.protocol.game.ClientboundBlockEntityDataPacket;
+import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.world.entity.item.ItemEntity;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.level.Level;
-import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraft.world.level.block.state.BlockState;
-import net.minecraftforge.network.PacketDistributor;
 import net.tropicraft.core.common.block.AirCompressorBlock;
 import net.tropicraft.core.common.item.scuba.ScubaArmorItem;
-import net.tropicraft.core.common.network.TropicraftPackets;
-import net.tropicraft.core.common.network.message.MessageAirCompressorInventory;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
-public class AirCompressorBlockEntity extends BlockEntity implements IMachineBlock {
+public class AirCompressorBlockEntity extends SyncedBlockEntity implements IMachineBlock {
+
+    /** Synced fields */
+    private static final int FIELD_TANK = 1;
+    private static final int FIELD_AIR = 1 << 1;
+    private static final int FIELD_PROGRESS = 1 << 2;
 
     /** Is the compressor currently giving air */
     private boolean compressing;
@@ -104,7 +102,7 @@ public class AirCompressorBlockEntity extends BlockEntity implements IMachineBlo
         if (tank == null && stack.getItem() instanceof ScubaArmorItem && ((ScubaArmorItem)stack.getItem()).providesAir()) {
             setTank(stack);
             this.compressing = true;
-            syncInventory();
+            markFieldsDirty(FIELD_TANK | FIELD_PROGRESS);
             return true;
         }
 
@@ -120,9 +118,9 @@ public class AirCompressorBlockEntity extends BlockEntity implements IMachineBlo
         }
 
         setTank(ItemStack.EMPTY);
-        syncInventory();
         this.ticks = 0;
         this.compressing = false;
+        markFieldsDirty(FIELD_TANK | FIELD_PROGRESS);
     }
 
     public boolean isDoneCompressing() {
@@ -142,13 +140,13 @@ public class AirCompressorBlockEntity extends BlockEntity implements IMachineBlo
 
     public void startCompressing() {
         this.compressing = true;
-        syncInventory();
+        markFieldsDirty(FIELD_PROGRESS);
     }
 
     public void finishCompressing() {
         this.compressing = false;
         this.ticks = 0;
-        syncInventory();
+        markFieldsDirty(FIELD_AIR | FIELD_PROGRESS);
     }
 
     public float getBreatheProgress(float partialTicks) {
@@ -175,36 +173,35 @@ public class AirCompressorBlockEntity extends BlockEntity implements IMachineBlo
         return state.getValue(AirCompressorBlock.FACING);
     }
 
-    /**
-     * Called when you receive a TileEntityData packet for the location this
-     * TileEntity is currently in. On the client, the NetworkManager will always
-     * be the remote server. On the server, it will be whomever is responsible for
-     * sending the packet.
-     *
-     * @param net The NetworkManager the packet originated from
-     * @param pkt The data packet
-     */
     @Override
-    public void onDataPacket(Connection net, ClientboundBlockEntityDataPacket pkt) {
-        this.load(pkt.getTag());
-    }
-
-    protected void syncInventory() {
-        if (!level.isClientSide) {
-            TropicraftPackets.INSTANCE.send(PacketDistributor.DIMENSION.with(level::dimension), new MessageAirCompressorInventory(this));
+    public void writeFields(int fields, FriendlyByteBuf buf) {
+        if ((fields & FIELD_TANK) != 0) {
+            buf.writeItem(stack);
+        }
+        if ((fields & FIELD_AIR) != 0) {
+            buf.writeVarInt(tank != null ? tank.getRemainingAir(stack) : 0);
+        }
+        if ((fields & FIELD_PROGRESS) != 0) {
+            buf.writeBoolean(compressing);
+            buf.writeVarInt(ticks);
         }
     }
 
     @Override
-    @Nullable
-    public Packet<ClientGamePacketListener> getUpdatePacket() {
-        return ClientboundBlockEntityDataPacket.create(this);
-    }
-
-    @Override
-    public @Nonnull CompoundTag getUpdateTag() {
-        CompoundTag nbt = new CompoundTag();
-        this.saveAdditional(nbt);
-        return nbt;
+    public void readFields(int fields, FriendlyByteBuf buf) {
+        if ((fields & FIELD_TANK) != 0) {
+            setTank(buf.readItem());
+        }
+        if ((fields & FIELD_AIR) != 0) {
+            int air = buf.readVarInt();
+            // Only the air added by compressing is synced, so the client can only ever be behind
+            if (tank != null) {
+                tank.addAir(air - tank.getRemainingAir(stack), stack);
+            }
+        }
+        if ((fields & FIELD_PROGRESS) != 0) {
+            compressing = buf.readBoolean();
+            ticks = buf.readVarInt();
+        }
     }
 }
@@ -4,13 +4,11 @@ import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.core.NonNullList;
 import net.minecraft.nbt.CompoundTag;
-import net.minecraft.network.Connection;
-import net.minecraft.network.protocol.game.ClientboundBlockEntityDataPacket;
+import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.world.Containers;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.level.Level;
-import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraft.world.level.block.state.BlockState;
 import net.tropicraft.core.common.block.DrinkMixerBlock;
 import net.tropicraft.core.common.drinks.Drink;
@@ -18,9 +16,6 @@ import net.tropicraft.core.common.drinks.Drinks;
 import net.tropicraft.core.common.drinks.Ingredient;
 import net.tropicraft.core.common.drinks.MixerRecipes;
 import net.tropicraft.core.common.item.CocktailItem;
-import net.tropicraft.core.common.network.TropicraftPackets;
-import net.tropicraft.core.common.network.message.MessageMixerInventory;
-import net.tropicraft.core.common.network.message.MessageMixerStart;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -28,11 +23,16 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
-public class DrinkMixerBlockEntity extends BlockEntity implements IMachineBlock {
+public class DrinkMixerBlockEntity extends SyncedBlockEntity implements IMachineBlock {
     /** Number of ticks to mix */
     private static final int TICKS_TO_MIX = 4*20;
     private static final int MAX_NUM_INGREDIENTS = 3;
 
+    /** Synced fields, one bit per ingredient slot followed by the result and the mixing progress */
+    private static final int FIELD_RESULT = 1 << MAX_NUM_INGREDIENTS;
+    private static final int FIELD_PROGRESS = FIELD_RESULT << 1;
+    private static final int FIELD_INGREDIENTS = FIELD_RESULT - 1;
+
     /** Number of ticks the mixer has been mixin' */
     private int ticks;
     public NonNullList<ItemStack> ingredients;
@@ -119,9 +119,7 @@ public class DrinkMixerBlockEntity extends BlockEntity implements IMachineBlock
     public void startMixing() {
         this.ticks = 0;
         this.mixing = true;
-        if (!level.isClientSide) {
-            TropicraftPackets.sendToDimension(new MessageMixerStart(this), level);
-        }
+        markFieldsDirty(FIELD_PROGRESS);
     }
 
     private void dropItem(@Nonnull ItemStack stack, @Nullable Player at) {
@@ -143,7 +141,7 @@ public class DrinkMixerBlockEntity extends BlockEntity implements IMachineBlock
 
         ticks = TICKS_TO_MIX;
         mixing = false;
-        syncInventory();
+        markFieldsDirty(FIELD_INGREDIENTS | FIELD_PROGRESS);
     }
 
     public void retrieveResult(@Nullable Player at) {
@@ -168,14 +166,14 @@ public class DrinkMixerBlockEntity extends BlockEntity implements IMachineBlock
 
         ingredients.clear();
         result = ItemStack.EMPTY;
-        syncInventory();
+        markFieldsDirty(FIELD_INGREDIENTS | FIELD_RESULT);
     }
 
     public void finishMixing() {
         result = getResult(getIngredients());
         mixing = false;
         ticks = 0;
-        syncInventory();
+        markFieldsDirty(FIELD_RESULT | FIELD_PROGRESS);
     }
 
     public boolean addToMixer(@Nonnull ItemStack ingredient) {
@@ -189,7 +187,7 @@ public class DrinkMixerBlockEntity extends BlockEntity implements IMachineBlock
                 }
             }
             ingredients.set(0, ingredient);
-            syncInventory();
+            markFieldsDirty(ingredientField(0));
             return true;
         } else if (ingredients.get(1).isEmpty()) {
             if (Drink.isDrink(ingredient.getItem())) {
@@ -207,7 +205,7 @@ public class DrinkMixerBlockEntity extends BlockEntity implements IMachineBlock
             }
 
             ingredients.set(1, ingredient);
-            syncInventory();
+            markFieldsDirty(ingredientField(1));
             return true;
         } else if (ingredients.get(2).isEmpty()) {
             if (Drink.isDrink(ingredient.getItem())) {
@@ -226,7 +224,7 @@ public class DrinkMixerBlockEntity extends BlockEntity implements IMachineBlock
             }
 
             ingredients.set(2, ingredient);
-            syncInventory();
+            markFieldsDirty(ingredientField(2));
             return true;
         } else {
             return false;
@@ -263,38 +261,40 @@ public class DrinkMixerBlockEntity extends BlockEntity implements IMachineBlock
         return state.getValue(DrinkMixerBlock.FACING);
     }
 
-    /**
-     * Called when you receive a TileEntityData packet for the location this
-     * TileEntity is currently in. On the client, the NetworkManager will always
-     * be the remote server. On the server, it will be whomever is responsible for
-     * sending the packet.
-     *
-     * @param net The NetworkManager the packet originated from
-     * @param pkt The data packet
-     */
-    @Override
-    public void onDataPacket(Connection net, ClientboundBlockEntityDataPacket pkt) {
-        load(pkt.getTag());
+    private static int ingredientField(int slot) {
+        return 1 << slot;
     }
 
-    protected void syncInventory() {
-        if (!level.isClientSide) {
-            TropicraftPackets.sendToDimension(new MessageMixerInventory(this), level);
+    @Override
+    public void writeFields(int fields, FriendlyByteBuf buf) {
+        for (int i = 0; i < MAX_NUM_INGREDIENTS; i++) {
+            if ((fields & ingredientField(i)) != 0) {
+                buf.writeItem(ingredients.get(i));
+            }
+        }
+        if ((fields & FIELD_RESULT) != 0) {
+            buf.writeItem(result);
+        }
+        if ((fields & FIELD_PROGRESS) != 0) {
+            buf.writeBoolean(mixing);
+            buf.writeVarInt(ticks);
         }
     }
 
-    @Nullable
-    public ClientboundBlockEntityDataPacket getUpdatePacket() {
-        return ClientboundBlockEntityDataPacket.create(this);
-    }
-
-    public CompoundTag getUpdateTag() {
-        return writeItems(new CompoundTag());
-    }
-
-    private CompoundTag writeItems(final CompoundTag nbt) {
-        this.saveAdditional(nbt);
-        return nbt;
+    @Override
+    public void readFields(int fields, FriendlyByteBuf buf) {
+        for (int i = 0; i < MAX_NUM_INGREDIENTS; i++) {
+            if ((fields & ingredientField(i)) != 0) {
+                ingredients.set(i, buf.readItem());
+            }
+        }
+        if ((fields & FIELD_RESULT) != 0) {
+            result = buf.readItem();
+        }
+        if ((fields & FIELD_PROGRESS) != 0) {
+            mixing = buf.readBoolean();
+            ticks = buf.readVarInt();
+        }
     }
 
     public ItemStack getResult(NonNullList<ItemStack> ingredients2) {
@@ -4,31 +4,29 @@ import net.minecraft.core.BlockPos;
 import net.minecraft.core.HolderSet;
 import net.minecraft.core.Registry;
 import net.minecraft.nbt.CompoundTag;
-import net.minecraft.network.Connection;
-import net.minecraft.network.protocol.game.ClientboundBlockEntityDataPacket;
+import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.world.entity.item.ItemEntity;
 import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.Items;
 import net.minecraft.world.level.Level;
-import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraft.world.level.block.state.BlockState;
 import net.tropicraft.Constants;
 import net.tropicraft.core.common.TropicraftTags;
 import net.tropicraft.core.common.item.TropicraftItems;
-import net.tropicraft.core.common.network.TropicraftPackets;
-import net.tropicraft.core.common.network.message.MessageSifterInventory;
-import net.tropicraft.core.common.network.message.MessageSifterStart;
 
 import javax.annotation.Nonnull;
-import javax.annotation.Nullable;
 import java.util.Random;
 
-public class SifterBlockEntity extends BlockEntity {
+public class SifterBlockEntity extends SyncedBlockEntity {
 
     /** Number of seconds to sift multiplied by the number of ticks per second */
     private static final int SIFT_TIME = 4 * 20;
 
+    /** Synced fields */
+    private static final int FIELD_ITEM = 1;
+    private static final int FIELD_PROGRESS = 1 << 1;
+
     /** Is this machine currently sifting? */
     private boolean isSifting;
 
@@ -79,7 +77,6 @@ public class SifterBlockEntity extends BlockEntity {
     public void dumpResults(final BlockPos pos) {
         // NOTE: Removed check and drop for heated sifter in 1.12
         dumpBeachResults(pos);
-        syncInventory();
     }
 
     // TODO replace with loot table
@@ -158,16 +155,13 @@ public class SifterBlockEntity extends BlockEntity {
 
     public void addItemToSifter(ItemStack stack) {
         siftItem = stack.copy().split(1);
-        syncInventory();
+        markFieldsDirty(FIELD_ITEM);
     }
 
     public void startSifting() {
         isSifting = true;
         currentSiftTime = SIFT_TIME;
-
-        if (!level.isClientSide) {
-            TropicraftPackets.sendToDimension(new MessageSifterStart(this), level);
-        }
+        markFieldsDirty(FIELD_PROGRESS);
     }
 
     private void stopSifting() {
@@ -181,7 +175,7 @@ public class SifterBlockEntity extends BlockEntity {
         currentSiftTime = SIFT_TIME;
         isSifting = false;
         siftItem = ItemStack.EMPTY;
-        syncInventory();
+        markFieldsDirty(FIELD_ITEM | FIELD_PROGRESS);
     }
 
     public void setSifting(boolean flag) {
@@ -221,28 +215,25 @@ public class SifterBlockEntity extends BlockEntity {
     }
 
     @Override
-    public void onDataPacket(Connection net, ClientboundBlockEntityDataPacket pkt) {
-        load(pkt.getTag());
-    }
-
-    protected void syncInventory() {
-        if (!level.isClientSide()) {
-            TropicraftPackets.sendToDimension(new MessageSifterInventory(this), level);
+    public void writeFields(int fields, FriendlyByteBuf buf) {
+        if ((fields & FIELD_ITEM) != 0) {
+            buf.writeItem(siftItem);
+        }
+        if ((fields & FIELD_PROGRESS) != 0) {
+            buf.writeBoolean(isSifting);
+            buf.writeVarInt(currentSiftTime);
         }
     }
 
-    @Nullable
-    public ClientboundBlockEntityDataPacket getUpdatePacket() {
-        return ClientboundBlockEntityDataPacket.create(this);
-    }
-
-    public CompoundTag getUpdateTag() {
-        return writeItems(new CompoundTag());
-    }
-
-    private CompoundTag writeItems(final CompoundTag nbt) {
-        this.saveAdditional(nbt);
-        return nbt;
+    @Override
+    public void readFields(int fields, FriendlyByteBuf buf) {
+        if ((fields & FIELD_ITEM) != 0) {
+            setSiftItem(buf.readItem());
+        }
+        if ((fields & FIELD_PROGRESS) != 0) {
+            isSifting = buf.readBoolean();
+            currentSiftTime = buf.readVarInt();
+        }
     }
 
     public void setSiftItem(final ItemStack siftItem) {
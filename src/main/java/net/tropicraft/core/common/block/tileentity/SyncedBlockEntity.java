@@ -0,0 +1,93 @@
+package net.tropicraft.core.common.block.tileentity;
+
+import io.netty.buffer.Unpooled;
+import net.minecraft.core.BlockPos;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.network.Connection;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.protocol.Packet;
+import net.minecraft.network.protocol.game.ClientGamePacketListener;
+import net.minecraft.network.protocol.game.ClientboundBlockEntityDataPacket;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.entity.BlockEntityType;
+import net.minecraft.world.level.block.state.BlockState;
+import net.tropicraft.core.common.network.BlockEntitySync;
+import net.tropicraft.core.common.network.message.MessageBlockEntityFields;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * A block entity whose client-visible state is split into fields, each identified by a bit. Changing a field marks
+ * its bit dirty, and at the end of the tick only the dirty fields are sent to the players tracking the chunk.
+ * <p>
+ * The update tag sent when a chunk is loaded on the client uses the same encoding, with every field included.
+ */
+public abstract class SyncedBlockEntity extends BlockEntity {
+    protected static final int ALL_FIELDS = ~0;
+
+    private int dirtyFields;
+
+    protected SyncedBlockEntity(BlockEntityType<?> type, BlockPos pos, BlockState state) {
+        super(type, pos, state);
+    }
+
+    /**
+     * Writes the fields whose bits are set in {@code fields}, in a fixed order that {@link #readFields} reads back.
+     */
+    public abstract void writeFields(int fields, FriendlyByteBuf buf);
+
+    /**
+     * Applies the fields whose bits are set in {@code fields} on the client.
+     */
+    public abstract void readFields(int fields, FriendlyByteBuf buf);
+
+    /**
+     * Flags the given fields as changed and queues an update for them. Does nothing on the client.
+     */
+    protected void markFieldsDirty(int fields) {
+        if (level != null && !level.isClientSide) {
+            dirtyFields |= fields;
+            BlockEntitySync.queue(this, MessageBlockEntityFields.class, MessageBlockEntityFields::new);
+        }
+    }
+
+    /**
+     * @return the fields changed since the last call, clearing them
+     */
+    public int consumeDirtyFields() {
+        int fields = dirtyFields;
+        dirtyFields = 0;
+        return fields;
+    }
+
+    @Override
+    @Nullable
+    public Packet<ClientGamePacketListener> getUpdatePacket() {
+        return ClientboundBlockEntityDataPacket.create(this);
+    }
+
+    @Override
+    public void onDataPacket(Connection net, ClientboundBlockEntityDataPacket pkt) {
+        handleUpdateTag(pkt.getTag());
+    }
+
+    @Override
+    public @Nonnull CompoundTag getUpdateTag() {
+        FriendlyByteBuf buf = new FriendlyByteBuf(Unpooled.buffer());
+        writeFields(ALL_FIELDS, buf);
+        byte[] fields = new byte[buf.readableBytes()];
+        buf.readBytes(fields);
+
+        CompoundTag nbt = new CompoundTag();
+        nbt.putByteArray("Fields", fields);
+        return nbt;
+    }
+
+    @Override
+    public void handleUpdateTag(CompoundTag nbt) {
+        if (nbt.contains("Fields")) {
+            readFields(ALL_FIELDS, new FriendlyByteBuf(Unpooled.wrappedBuffer(nbt.getByteArray("Fields"))));
+        }
+    }
+}
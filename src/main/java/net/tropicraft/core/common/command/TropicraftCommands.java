@@ -4,9 +4,16 @@ import com.mojang.brigadier.Command;
 import com.mojang.brigadier.CommandDispatcher;
 import com.mojang.brigadier.exceptions.CommandSyntaxException;
 import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.network.chat.TextComponent;
 import net.minecraftforge.fml.loading.FMLEnvironment;
 import net.tropicraft.core.common.command.debug.MapBiomesCommand;
+import net.tropicraft.core.common.dimension.PortalDestinationCache;
 import net.tropicraft.core.common.dimension.TropicraftDimension;
+import net.tropicraft.core.common.entity.ai.koa.KoaWorkScheduler;
+import net.tropicraft.core.common.network.BlockEntitySync;
+import net.tropicraft.core.common.network.TropicraftMessage;
+
+import java.util.Map;
 
 import static net.minecraft.commands.Commands.literal;
 
@@ -28,6 +35,18 @@ public final class TropicraftCommands {
                             .requires(s -> s.hasPermission(2))
                             .executes(c -> teleportWithPortal(c.getSource()))
                     )
+                    .then(literal("portal_cache")
+                            .requires(s -> s.hasPermission(2))
+                            .executes(c -> portalCacheStats(c.getSource()))
+                    )
+                    .then(literal("sync_stats")
+                            .requires(s -> s.hasPermission(2))
+                            .executes(c -> syncStats(c.getSource()))
+                    )
+                    .then(literal("koa_scheduler")
+                            .requires(s -> s.hasPermission(2))
+                            .executes(c -> koaSchedulerStats(c.getSource()))
+                    )
             );
         }
     }
@@ -37,6 +56,26 @@ public final class TropicraftCommands {
         return Command.SINGLE_SUCCESS;
     }
 
+    private static int portalCacheStats(final CommandSourceStack source) {
+        PortalDestinationCache cache = PortalDestinationCache.get(source.getLevel());
+        source.sendSuccess(new TextComponent("Portal destinations: " + cache.size() + " cached, " + cache.getHits() + " hits, " + cache.getMisses() + " misses"), false);
+        return cache.size();
+    }
+
+    private static int syncStats(final CommandSourceStack source) {
+        Map<Class<? extends TropicraftMessage>, BlockEntitySync.Stats> stats = BlockEntitySync.getStats();
+        stats.forEach((type, typeStats) -> source.sendSuccess(new TextComponent(type.getSimpleName() + ": " + typeStats.getPackets() + " packets, " + typeStats.getBytes() + " bytes"), false));
+        return stats.size();
+    }
+
+    private static int koaSchedulerStats(final CommandSourceStack source) {
+        KoaWorkScheduler scheduler = KoaWorkScheduler.get(source.getLevel());
+        source.sendSuccess(new TextComponent("Koa work: " + scheduler.getQueueDepth() + " queued, " + scheduler.getCompleted() + " completed, "
+                + scheduler.getDeferred() + " deferred, " + scheduler.getMaxWaitTicks() + " ticks max wait, "
+                + scheduler.getLastTickNanos() / 1000 + "us last tick"), false);
+        return scheduler.getQueueDepth();
+    }
+
     private static int teleportWithPortal(final CommandSourceStack source) throws CommandSyntaxException {
         TropicraftDimension.teleportPlayerWithPortal(source.getPlayerOrException(), TropicraftDimension.WORLD);
         return Command.SINGLE_SUCCESS;
@@ -0,0 +1,205 @@
+package net.tropicraft.core.common.dimension;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMaps;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongList;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.LongArrayTag;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.TicketType;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.saveddata.SavedData;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.tropicraft.Constants;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.annotation.Nullable;
+
+/**
+ * Remembers which portal an entity arriving in a given chunk was sent to, so repeated trips through the same
+ * area skip the portal lookup entirely.
+ * <p>
+ * Entries are kept in least-recently-used order, capped at {@link #MAX_SIZE}, expire after {@link #EXPIRY_TICKS}
+ * without use and are persisted with the dimension. Every lookup that finds a destination adds a portal ticket
+ * there, like vanilla does for the portals it finds, which keeps the chunks around the arrival loaded for a short
+ * while and then expires by itself.
+ */
+@Mod.EventBusSubscriber(modid = Constants.MODID)
+public class PortalDestinationCache extends SavedData {
+    private static final Logger LOGGER = LogManager.getLogger("tropics portal");
+
+    private static final String STORAGE_ID = Constants.MODID + "_portal_destinations";
+
+    private static final int MAX_SIZE = 4096;
+    private static final long EXPIRY_TICKS = 20L * 60 * 20;
+    private static final long PRUNE_INTERVAL = 100L;
+    private static final int TICKET_RADIUS = 3;
+
+    private final Long2ObjectLinkedOpenHashMap<PortalPosition> destinations = new Long2ObjectLinkedOpenHashMap<>();
+
+    // Not persisted, these only describe the current session
+    private long hits;
+    private long misses;
+
+    record PortalPosition(BlockPos pos, long lastUpdateTime) {
+        public PortalPosition touch(long time) {
+            return new PortalPosition(this.pos, time);
+        }
+    }
+
+    public static PortalDestinationCache get(ServerLevel level) {
+        return level.getDataStorage().computeIfAbsent(PortalDestinationCache::load, PortalDestinationCache::new, STORAGE_ID);
+    }
+
+    private static PortalDestinationCache load(CompoundTag tag) {
+        PortalDestinationCache cache = new PortalDestinationCache();
+        long[] keys = tag.getLongArray("keys");
+        long[] positions = tag.getLongArray("positions");
+        long[] times = tag.getLongArray("times");
+        int count = Math.min(keys.length, Math.min(positions.length, times.length));
+        for (int i = 0; i < count; i++) {
+            cache.destinations.putAndMoveToLast(keys[i], new PortalPosition(BlockPos.of(positions[i]), times[i]));
+        }
+        return cache;
+    }
+
+    @Override
+    public CompoundTag save(CompoundTag tag) {
+        LongList keys = new LongArrayList(this.destinations.size());
+        LongList positions = new LongArrayList(this.destinations.size());
+        LongList times = new LongArrayList(this.destinations.size());
+        ObjectIterator<Long2ObjectMap.Entry<PortalPosition>> iterator = Long2ObjectMaps.fastIterator(this.destinations);
+        while (iterator.hasNext()) {
+            Long2ObjectMap.Entry<PortalPosition> entry = iterator.next();
+            keys.add(entry.getLongKey());
+            positions.add(entry.getValue().pos().asLong());
+            times.add(entry.getValue().lastUpdateTime());
+        }
+        tag.put("keys", new LongArrayTag(keys.toLongArray()));
+        tag.put("positions", new LongArrayTag(positions.toLongArray()));
+        tag.put("times", new LongArrayTag(times.toLongArray()));
+        return tag;
+    }
+
+    @SubscribeEvent
+    public static void onWorldTick(TickEvent.WorldTickEvent event) {
+        if (event.phase == TickEvent.Phase.END && event.world instanceof ServerLevel level && level.getGameTime() % PRUNE_INTERVAL == 0L) {
+            // Don't create the cache just to prune it
+            PortalDestinationCache cache = level.getDataStorage().get(PortalDestinationCache::load, STORAGE_ID);
+            if (cache != null) {
+                cache.prune(level);
+            }
+        }
+    }
+
+    /**
+     * @return the key for entities arriving at the given block position
+     */
+    public static long key(BlockPos pos) {
+        return ChunkPos.asLong(SectionPos.blockToSectionCoord(pos.getX()), SectionPos.blockToSectionCoord(pos.getZ()));
+    }
+
+    /**
+     * Looks up the cached destination for the given key, dropping it if its portal is gone.
+     *
+     * @param countLookup whether to count this lookup towards the hit and miss statistics, which should happen
+     *                    once per teleport
+     */
+    @Nullable
+    public BlockPos get(ServerLevel level, long key, Block portalBlock, boolean countLookup) {
+        PortalPosition position = this.destinations.getAndMoveToLast(key);
+        if (position != null && !level.getBlockState(position.pos()).is(portalBlock)) {
+            this.remove(key);
+            position = null;
+        }
+
+        if (countLookup) {
+            if (position != null) {
+                this.hits++;
+            } else {
+                this.misses++;
+            }
+        }
+        if (position == null) {
+            return null;
+        }
+
+        this.destinations.put(key, position.touch(level.getGameTime()));
+        this.addTicket(level, position.pos());
+        this.setDirty();
+        return position.pos();
+    }
+
+    public void put(ServerLevel level, long key, BlockPos pos) {
+        this.destinations.putAndMoveToLast(key, new PortalPosition(pos.immutable(), level.getGameTime()));
+        this.addTicket(level, pos);
+
+        while (this.destinations.size() > MAX_SIZE) {
+            this.destinations.removeFirst();
+        }
+        this.setDirty();
+    }
+
+    /**
+     * Forgets every destination looked up from within {@code radius} blocks of the given position, for example
+     * because a new portal was built there that may now be closer.
+     */
+    public void invalidateAround(BlockPos pos, int radius) {
+        int minChunkX = SectionPos.blockToSectionCoord(pos.getX() - radius);
+        int maxChunkX = SectionPos.blockToSectionCoord(pos.getX() + radius);
+        int minChunkZ = SectionPos.blockToSectionCoord(pos.getZ() - radius);
+        int maxChunkZ = SectionPos.blockToSectionCoord(pos.getZ() + radius);
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                this.remove(ChunkPos.asLong(chunkX, chunkZ));
+            }
+        }
+    }
+
+    public long getHits() {
+        return this.hits;
+    }
+
+    public long getMisses() {
+        return this.misses;
+    }
+
+    public int size() {
+        return this.destinations.size();
+    }
+
+    private void remove(long key) {
+        if (this.destinations.remove(key) != null) {
+            this.setDirty();
+        }
+    }
+
+    private void prune(ServerLevel level) {
+        long sinceTime = level.getGameTime() - EXPIRY_TICKS;
+
+        // Entries are kept in access order, so the stale ones are all at the front
+        while (!this.destinations.isEmpty()) {
+            long key = this.destinations.firstLongKey();
+            PortalPosition position = this.destinations.get(key);
+            if (position.lastUpdateTime() >= sinceTime) {
+                break;
+            }
+
+            LOGGER.debug("Removing tropics portal destination for {}:{}", level.dimension().location(), new ChunkPos(key));
+            this.remove(key);
+        }
+    }
+
+    private void addTicket(ServerLevel level, BlockPos pos) {
+        level.getChunkSource().addRegionTicket(TicketType.PORTAL, new ChunkPos(pos), TICKET_RADIUS, pos);
+    }
+}
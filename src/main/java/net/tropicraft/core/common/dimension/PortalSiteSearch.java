@@ -0,0 +1,441 @@
+package net.tropicraft.core.common.dimension;
+
+import net.minecraft.Util;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.core.SectionPos;
+import net.minecraft.server.level.ServerChunkCache;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.TicketType;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.levelgen.Heightmap;
+import net.minecraft.world.phys.Vec3;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.server.ServerStoppingEvent;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.tropicraft.Constants;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Finds a spot to build a new tropics portal without stalling the server thread.
+ * <p>
+ * The search runs in stages: a portal ticket is added so the surrounding chunks load in the background, a
+ * heightmap {@link Snapshot} is taken on the server thread once they are ready, the candidates are scored on a
+ * background worker, and the result is handed back on the server thread. If there is no site (e.g. we're in the
+ * middle of the ocean), the same is done again for the columns along the four axes, looking for land to build a
+ * bridge to. The axes are loaded outwards a batch at a time, and the search stops at the first batch with land, so
+ * chunks further out than the nearest land are never loaded.
+ * <p>
+ * Searches are dropped when the server stops or their level unloads, which cancels their future.
+ */
+@Mod.EventBusSubscriber(modid = Constants.MODID)
+public final class PortalSiteSearch {
+    private static final int SEARCH_AREA = 16;
+    private static final int PROBE_RADIUS = 2;
+    private static final int SNAPSHOT_RADIUS = SEARCH_AREA + PROBE_RADIUS;
+    private static final int SNAPSHOT_SIZE = SNAPSHOT_RADIUS * 2 + 1;
+
+    // Only generate portal between sea level and sea level + 20
+    private static final int MIN_SITE_Y = 63;
+    private static final int MAX_SITE_Y = 63 + 20;
+    private static final int MAX_HEIGHT_DIFFERENCE = 3;
+
+    // The bridge starts at the edge of the portal platform and looks for land up to this far beyond it
+    private static final int BRIDGE_START = 3;
+    private static final int MAX_BRIDGE_LENGTH = 200;
+    // How far further out each batch of axis columns reaches
+    private static final int AXIS_BATCH = 32;
+    private static final Direction[] BRIDGE_DIRECTIONS = Direction.Plane.HORIZONTAL.stream().toArray(Direction[]::new);
+
+    private static final int TICKET_RADIUS = 3;
+    // Give up waiting on background chunk loading after this long and load whatever is left directly
+    private static final int MAX_WAIT_TICKS = 20 * 10;
+
+    // Only touched from the server thread
+    private static final List<PortalSiteSearch> PENDING = new ArrayList<>();
+
+    private enum Stage {
+        WAITING_FOR_AREA,
+        SEARCHING_AREA,
+        WAITING_FOR_AXES,
+        SEARCHING_AXES,
+        DONE
+    }
+
+    private final ServerLevel level;
+    private final BlockPos origin;
+    private final Vec3 target;
+    private final CompletableFuture<Result> result = new CompletableFuture<>();
+    private Stage stage = Stage.WAITING_FOR_AREA;
+    private int waitedTicks;
+    // The first distance of the batch of axis columns being loaded or searched
+    private int axisFrom = 1;
+
+    /**
+     * A suitable portal location: the topmost solid block of the column the portal should be built on.
+     */
+    public record Site(int x, int y, int z) {
+    }
+
+    /**
+     * The nearest land when there is no site, as seen from the terrain height at the search origin: the first valid
+     * build block {@code distance} blocks past the edge of the portal platform in the given direction.
+     */
+    public record Landing(Direction direction, int distance) {
+    }
+
+    /**
+     * Either a site to build on, or failing that the land to bridge to, if any.
+     */
+    public record Result(@Nullable Site site, @Nullable Landing landing) {
+    }
+
+    private PortalSiteSearch(ServerLevel level, Vec3 target) {
+        this.level = level;
+        this.origin = new BlockPos(target);
+        this.target = target;
+    }
+
+    /**
+     * Starts searching around the given position. Must be called from the server thread.
+     *
+     * @return a future completed on the server thread with the search result
+     */
+    public static CompletableFuture<Result> start(ServerLevel level, Vec3 target) {
+        PortalSiteSearch search = new PortalSiteSearch(level, target);
+        level.getChunkSource().addRegionTicket(TicketType.PORTAL, new ChunkPos(search.origin), TICKET_RADIUS, search.origin);
+        PENDING.add(search);
+        return search.result;
+    }
+
+    /**
+     * Runs the whole search on the calling thread, loading chunks directly. Must be called from the server thread.
+     */
+    public static Result searchNow(ServerLevel level, Vec3 target) {
+        BlockPos origin = new BlockPos(target);
+        Site site = findSite(Snapshot.capture(level, origin), target);
+        if (site != null) {
+            return new Result(site, null);
+        }
+        for (int from = 1; from < MAX_BRIDGE_LENGTH; from += AXIS_BATCH) {
+            Landing landing = findLanding(AxisSnapshot.capture(level, origin, from, axisTo(from), true));
+            if (landing != null) {
+                return new Result(null, landing);
+            }
+        }
+        return new Result(null, null);
+    }
+
+    @SubscribeEvent
+    public static void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase != TickEvent.Phase.END || PENDING.isEmpty()) {
+            return;
+        }
+
+        // Stages can complete while we go through the list, so don't hold an iterator over it
+        for (int i = 0; i < PENDING.size(); i++) {
+            PENDING.get(i).tick();
+        }
+        PENDING.removeIf(search -> search.stage == Stage.DONE);
+    }
+
+    @SubscribeEvent
+    public static void onServerStopping(ServerStoppingEvent event) {
+        List<PortalSiteSearch> dropped = new ArrayList<>(PENDING);
+        PENDING.clear();
+        dropped.forEach(PortalSiteSearch::drop);
+    }
+
+    @SubscribeEvent
+    public static void onWorldUnload(WorldEvent.Unload event) {
+        if (event.getWorld() instanceof ServerLevel level) {
+            List<PortalSiteSearch> dropped = new ArrayList<>();
+            PENDING.removeIf(search -> search.level == level && dropped.add(search));
+            dropped.forEach(PortalSiteSearch::drop);
+        }
+    }
+
+    private void drop() {
+        this.stage = Stage.DONE;
+        this.result.cancel(false);
+    }
+
+    private static int axisTo(int from) {
+        return Math.min(from + AXIS_BATCH, MAX_BRIDGE_LENGTH);
+    }
+
+    private void tick() {
+        switch (this.stage) {
+            case WAITING_FOR_AREA -> {
+                if (this.isSnapshotAreaLoaded() || this.waitedTicks++ >= MAX_WAIT_TICKS) {
+                    this.searchArea();
+                }
+            }
+            case WAITING_FOR_AXES -> {
+                if (this.areAxesLoaded() || this.waitedTicks++ >= MAX_WAIT_TICKS) {
+                    this.searchAxes();
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    private void searchArea() {
+        this.stage = Stage.SEARCHING_AREA;
+        Snapshot snapshot = Snapshot.capture(this.level, this.origin);
+        this.runAsync(() -> findSite(snapshot, this.target), site -> {
+            if (site != null) {
+                this.complete(new Result(site, null));
+            } else {
+                this.waitForAxes();
+            }
+        });
+    }
+
+    private void waitForAxes() {
+        this.stage = Stage.WAITING_FOR_AXES;
+        this.waitedTicks = 0;
+        ServerChunkCache chunkSource = this.level.getChunkSource();
+        forEachAxisChunk(this.origin, this.axisFrom, axisTo(this.axisFrom), (chunkX, chunkZ) -> chunkSource.addRegionTicket(TicketType.PORTAL, new ChunkPos(chunkX, chunkZ), 0, this.origin));
+    }
+
+    private void searchAxes() {
+        this.stage = Stage.SEARCHING_AXES;
+        int to = axisTo(this.axisFrom);
+        // Whatever still isn't loaded is left out rather than loaded here
+        AxisSnapshot snapshot = AxisSnapshot.capture(this.level, this.origin, this.axisFrom, to, false);
+        this.runAsync(() -> findLanding(snapshot), landing -> {
+            if (landing != null || to >= MAX_BRIDGE_LENGTH) {
+                this.complete(new Result(null, landing));
+            } else {
+                this.axisFrom = to;
+                this.waitForAxes();
+            }
+        });
+    }
+
+    private <T> void runAsync(Supplier<T> task, Consumer<T> onServer) {
+        CompletableFuture.supplyAsync(task, Util.backgroundExecutor())
+                .whenCompleteAsync((value, throwable) -> {
+                    if (this.stage == Stage.DONE) {
+                        // Dropped while the worker was busy
+                        return;
+                    }
+                    if (throwable != null) {
+                        this.stage = Stage.DONE;
+                        this.result.completeExceptionally(throwable);
+                    } else {
+                        onServer.accept(value);
+                    }
+                }, this.level.getServer());
+    }
+
+    private void complete(Result result) {
+        this.stage = Stage.DONE;
+        this.result.complete(result);
+    }
+
+    private boolean isSnapshotAreaLoaded() {
+        ServerChunkCache chunkSource = this.level.getChunkSource();
+        int minChunkX = SectionPos.blockToSectionCoord(this.origin.getX() - SNAPSHOT_RADIUS);
+        int maxChunkX = SectionPos.blockToSectionCoord(this.origin.getX() + SNAPSHOT_RADIUS);
+        int minChunkZ = SectionPos.blockToSectionCoord(this.origin.getZ() - SNAPSHOT_RADIUS);
+        int maxChunkZ = SectionPos.blockToSectionCoord(this.origin.getZ() + SNAPSHOT_RADIUS);
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                if (chunkSource.getChunkNow(chunkX, chunkZ) == null) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean areAxesLoaded() {
+        ServerChunkCache chunkSource = this.level.getChunkSource();
+        boolean[] loaded = {true};
+        forEachAxisChunk(this.origin, this.axisFrom, axisTo(this.axisFrom), (chunkX, chunkZ) -> loaded[0] &= chunkSource.getChunkNow(chunkX, chunkZ) != null);
+        return loaded[0];
+    }
+
+    private interface ChunkConsumer {
+        void accept(int chunkX, int chunkZ);
+    }
+
+    private static void forEachAxisChunk(BlockPos origin, int from, int to, ChunkConsumer consumer) {
+        for (Direction direction : BRIDGE_DIRECTIONS) {
+            int lastChunkX = Integer.MIN_VALUE;
+            int lastChunkZ = Integer.MIN_VALUE;
+            for (int distance = from; distance < to; distance++) {
+                int offset = BRIDGE_START + distance;
+                int chunkX = SectionPos.blockToSectionCoord(origin.getX() + direction.getStepX() * offset);
+                int chunkZ = SectionPos.blockToSectionCoord(origin.getZ() + direction.getStepZ() * offset);
+                if (chunkX != lastChunkX || chunkZ != lastChunkZ) {
+                    consumer.accept(chunkX, chunkZ);
+                    lastChunkX = chunkX;
+                    lastChunkZ = chunkZ;
+                }
+            }
+        }
+    }
+
+    /**
+     * Picks the closest column to {@code target} whose ground is a valid build block within the allowed height
+     * band, and whose neighbours within {@link #PROBE_RADIUS} are no more than a few blocks higher or lower.
+     * Only reads from the snapshot, so this is safe to run off the server thread.
+     */
+    @Nullable
+    public static Site findSite(Snapshot snapshot, Vec3 target) {
+        Site closest = null;
+        double closestDistance = -1.0D;
+
+        for (int dx = -SEARCH_AREA; dx <= SEARCH_AREA; dx++) {
+            int x = snapshot.originX + dx;
+            double distX = (x + 0.5D) - target.x;
+
+            nextCoords:
+            for (int dz = -SEARCH_AREA; dz <= SEARCH_AREA; dz++) {
+                int index = Snapshot.index(dx, dz);
+                int y = snapshot.groundHeights[index];
+                if (!snapshot.validGround[index] || y < MIN_SITE_Y || y > MAX_SITE_Y) {
+                    continue;
+                }
+
+                for (int xOffset = -PROBE_RADIUS; xOffset <= PROBE_RADIUS; xOffset++) {
+                    for (int zOffset = -PROBE_RADIUS; zOffset <= PROBE_RADIUS; zOffset++) {
+                        int otherY = snapshot.groundHeights[Snapshot.index(dx + xOffset, dz + zOffset)];
+                        if (Math.abs(y - otherY) >= MAX_HEIGHT_DIFFERENCE) {
+                            continue nextCoords;
+                        }
+                    }
+                }
+
+                int z = snapshot.originZ + dz;
+                double distY = (y + 0.5D) - target.y;
+                double distZ = (z + 0.5D) - target.z;
+                double distance = distX * distX + distY * distY + distZ * distZ;
+                if (closestDistance < 0.0D || distance < closestDistance) {
+                    closestDistance = distance;
+                    closest = new Site(x, y, z);
+                }
+            }
+        }
+
+        return closest;
+    }
+
+    /**
+     * Picks the nearest land along the four axes within the snapshot's distances, trying each direction in turn at
+     * every distance. Only reads from the snapshot, so this is safe to run off the server thread.
+     */
+    @Nullable
+    public static Landing findLanding(AxisSnapshot snapshot) {
+        for (int distance = snapshot.from; distance < snapshot.to; distance++) {
+            for (int i = 0; i < BRIDGE_DIRECTIONS.length; i++) {
+                if (snapshot.validGround[i][distance - snapshot.from]) {
+                    return new Landing(BRIDGE_DIRECTIONS[i], distance);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The ground height and whether the ground is buildable, for every column the search may look at.
+     */
+    public static final class Snapshot {
+        private final int originX;
+        private final int originZ;
+        private final int[] groundHeights = new int[SNAPSHOT_SIZE * SNAPSHOT_SIZE];
+        private final boolean[] validGround = new boolean[SNAPSHOT_SIZE * SNAPSHOT_SIZE];
+
+        private Snapshot(int originX, int originZ) {
+            this.originX = originX;
+            this.originZ = originZ;
+        }
+
+        private static int index(int dx, int dz) {
+            return (dx + SNAPSHOT_RADIUS) * SNAPSHOT_SIZE + (dz + SNAPSHOT_RADIUS);
+        }
+
+        /**
+         * Reads the snapshot from the world, loading chunks if needed. Must be called from the server thread.
+         */
+        public static Snapshot capture(ServerLevel level, BlockPos origin) {
+            Snapshot snapshot = new Snapshot(origin.getX(), origin.getZ());
+            BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+
+            for (int dx = -SNAPSHOT_RADIUS; dx <= SNAPSHOT_RADIUS; dx++) {
+                for (int dz = -SNAPSHOT_RADIUS; dz <= SNAPSHOT_RADIUS; dz++) {
+                    int x = origin.getX() + dx;
+                    int z = origin.getZ() + dz;
+                    LevelChunk chunk = level.getChunk(SectionPos.blockToSectionCoord(x), SectionPos.blockToSectionCoord(z));
+                    int y = chunk.getHeight(Heightmap.Types.OCEAN_FLOOR, x & 15, z & 15);
+
+                    int index = index(dx, dz);
+                    snapshot.groundHeights[index] = y;
+                    snapshot.validGround[index] = TropicsTeleporter.isValidBuildBlock(chunk.getBlockState(pos.set(x, y, z)));
+                }
+            }
+
+            return snapshot;
+        }
+    }
+
+    /**
+     * Whether there is buildable ground at bridge height for the columns along the four axes from the search
+     * origin, between two distances. Bridges are built level with the terrain at the origin, so that is the height
+     * looked at.
+     */
+    public static final class AxisSnapshot {
+        private final int from;
+        private final int to;
+        private final boolean[][] validGround;
+
+        private AxisSnapshot(int from, int to) {
+            this.from = from;
+            this.to = to;
+            this.validGround = new boolean[BRIDGE_DIRECTIONS.length][to - from];
+        }
+
+        /**
+         * Reads the snapshot from the world, for the columns from {@code from} up to but not including {@code to}
+         * blocks past the edge of the portal platform. Must be called from the server thread.
+         *
+         * @param loadChunks whether to load chunks that aren't loaded yet, rather than treating them as having no
+         *                   land
+         */
+        public static AxisSnapshot capture(ServerLevel level, BlockPos origin, int from, int to, boolean loadChunks) {
+            AxisSnapshot snapshot = new AxisSnapshot(from, to);
+            int bridgeY = TropicsTeleporter.getTerrainHeightAt(level.getChunkAt(origin), origin.getX(), origin.getZ());
+            BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+
+            for (int i = 0; i < BRIDGE_DIRECTIONS.length; i++) {
+                Direction direction = BRIDGE_DIRECTIONS[i];
+                for (int distance = from; distance < to; distance++) {
+                    int offset = BRIDGE_START + distance;
+                    int x = origin.getX() + direction.getStepX() * offset;
+                    int z = origin.getZ() + direction.getStepZ() * offset;
+                    int chunkX = SectionPos.blockToSectionCoord(x);
+                    int chunkZ = SectionPos.blockToSectionCoord(z);
+                    LevelChunk chunk = loadChunks ? level.getChunk(chunkX, chunkZ) : level.getChunkSource().getChunkNow(chunkX, chunkZ);
+                    if (chunk != null) {
+                        snapshot.validGround[i][distance - from] = TropicsTeleporter.isValidBuildBlock(chunk.getBlockState(pos.set(x, bridgeY, z)));
+                    }
+                }
+            }
+
+            return snapshot;
+        }
+    }
+}
@@ -22,6 +22,7 @@ import net.minecraft.world.level.levelgen.structure.StructureSet;
 import net.minecraft.world.level.levelgen.synth.NormalNoise;
 import net.minecraft.world.level.storage.LevelResource;
 import net.minecraft.world.level.storage.LevelStorageSource;
+import net.minecraft.world.phys.Vec3;
 import net.minecraftforge.common.ForgeHooks;
 import net.minecraftforge.event.ForgeEventFactory;
 import net.minecraftforge.event.world.WorldEvent;
@@ -39,7 +40,9 @@ import org.jetbrains.annotations.Nullable;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.HashSet;
 import java.util.Set;
+import java.util.UUID;
 import java.util.function.Supplier;
 
 @Mod.EventBusSubscriber(modid = Constants.MODID)
@@ -53,6 +56,11 @@ public class TropicraftDimension {
     public static final ResourceKey<DimensionType> DIMENSION_TYPE = ResourceKey.create(Registry.DIMENSION_TYPE_REGISTRY, ID);
     public static final ResourceKey<NoiseGeneratorSettings> DIMENSION_SETTINGS = ResourceKey.create(Registry.NOISE_GENERATOR_SETTINGS_REGISTRY, ID);
 
+    // Players whose destination portal is still being prepared. Only touched from the server thread
+    private static final Set<UUID> PREPARING_PORTAL = new HashSet<>();
+    // How far a player can move while their destination portal is prepared and still be sent through
+    private static final double MAX_PREPARE_DISTANCE = 8.0;
+
     @SubscribeEvent
     public static void onWorldLoad(WorldEvent.Load event) {
         if (event.getWorld() instanceof ServerLevel) {
@@ -146,6 +154,10 @@ public class TropicraftDimension {
      * Finds the top Y position relative to the dimension the player is teleporting to and places the entity at that position.
      * <p>
      * A portal will be generated on the players teleport with such position based on the portal's info position.
+     * <p>
+     * Preparing the destination portal can take a while. Until it is done, further teleports for the player are
+     * ignored, and the teleport is cancelled if the player has moved more than {@link #MAX_PREPARE_DISTANCE} blocks
+     * away from where it started in the meantime, since the portal was prepared for that spot.
      *
      * @param player The player that will be teleported
      * @param dimensionType The Tropicraft Dimension Type for reference
@@ -154,12 +166,26 @@ public class TropicraftDimension {
         ServerLevel destLevel = getTeleportDestination(player, dimensionType);
         if (destLevel == null) return;
 
-        if (!player.isOnPortalCooldown()) {
-            player.unRide();
-            player.changeDimension(destLevel, new TropicsTeleporter(destLevel));
+        if (!player.isOnPortalCooldown() && PREPARING_PORTAL.add(player.getUUID())) {
+            ResourceKey<Level> sourceDimension = player.level.dimension();
+            Vec3 origin = player.position();
+            TropicsTeleporter teleporter = new TropicsTeleporter(destLevel);
 
-            //Note: Stops the player from teleporting right after going through the portal
             player.portalCooldown = 160;
+
+            teleporter.preparePortal(player).whenComplete((result, throwable) -> {
+                PREPARING_PORTAL.remove(player.getUUID());
+                if (throwable != null || player.isRemoved() || player.level.dimension() != sourceDimension
+                        || player.position().distanceToSqr(origin) > MAX_PREPARE_DISTANCE * MAX_PREPARE_DISTANCE) {
+                    return;
+                }
+
+                player.unRide();
+                player.changeDimension(destLevel, teleporter);
+
+                //Note: Stops the player from teleporting right after going through the portal
+                player.portalCooldown = 160;
+            });
         }
     }
 
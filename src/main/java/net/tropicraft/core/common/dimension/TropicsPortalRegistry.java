@@ -0,0 +1,223 @@
+package net.tropicraft.core.common.dimension;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.LongArrayTag;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.saveddata.SavedData;
+import net.minecraftforge.event.world.ChunkEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.tropicraft.Constants;
+import net.tropicraft.core.common.block.TropicraftBlocks;
+
+import javax.annotation.Nullable;
+
+/**
+ * Persistent per-dimension index of tropics portals, bucketed by chunk.
+ * <p>
+ * Every portal water column is recorded by its lowest block, which matches what the old block scan in
+ * {@link TropicsTeleporter#placeInExistingPortal} used to find. Entries are added when a teleporter is built
+ * and when a loaded chunk is found to contain portal water, and are moved up or dropped when the portal water
+ * they point at is removed. Anything missed that way, such as portal water replaced without block updates, is
+ * dropped as soon as a lookup finds that it is gone.
+ */
+@Mod.EventBusSubscriber(modid = Constants.MODID)
+public class TropicsPortalRegistry extends SavedData {
+    private static final String STORAGE_ID = Constants.MODID + "_portals";
+
+    private final Long2ObjectMap<LongSet> portalsByChunk = new Long2ObjectOpenHashMap<>();
+
+    public static TropicsPortalRegistry get(ServerLevel level) {
+        return level.getDataStorage().computeIfAbsent(TropicsPortalRegistry::load, TropicsPortalRegistry::new, STORAGE_ID);
+    }
+
+    private static TropicsPortalRegistry load(CompoundTag tag) {
+        TropicsPortalRegistry registry = new TropicsPortalRegistry();
+        for (long pos : tag.getLongArray("portals")) {
+            registry.addPortal(pos);
+        }
+        return registry;
+    }
+
+    @Override
+    public CompoundTag save(CompoundTag tag) {
+        LongList portals = new LongArrayList();
+        for (LongSet chunkPortals : this.portalsByChunk.values()) {
+            portals.addAll(chunkPortals);
+        }
+        tag.put("portals", new LongArrayTag(portals.toLongArray()));
+        return tag;
+    }
+
+    @SubscribeEvent
+    public static void onChunkLoad(ChunkEvent.Load event) {
+        if (event.getWorld() instanceof ServerLevel level && event.getChunk() instanceof LevelChunk chunk) {
+            get(level).indexChunk(chunk);
+        }
+    }
+
+    public void add(BlockPos pos) {
+        if (this.addPortal(pos.asLong())) {
+            this.setDirty();
+        }
+    }
+
+    public boolean remove(BlockPos pos) {
+        long chunkKey = ChunkPos.asLong(SectionPos.blockToSectionCoord(pos.getX()), SectionPos.blockToSectionCoord(pos.getZ()));
+        LongSet chunkPortals = this.portalsByChunk.get(chunkKey);
+        if (chunkPortals != null && chunkPortals.remove(pos.asLong())) {
+            if (chunkPortals.isEmpty()) {
+                this.portalsByChunk.remove(chunkKey);
+            }
+            this.setDirty();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Updates the index after the portal water at the given position was removed. If it was the bottom of its column,
+     * the column is now recorded by the portal water above it, if there is any left.
+     */
+    public void onPortalRemoved(ServerLevel level, BlockPos pos) {
+        if (this.remove(pos)) {
+            BlockPos above = pos.above();
+            if (level.getBlockState(above).is(TropicraftBlocks.PORTAL_WATER.get())) {
+                this.add(above);
+            }
+        }
+    }
+
+    /**
+     * Finds the portal column closest to the given position within a square of {@code searchArea} blocks
+     * in each horizontal direction. Stale entries encountered along the way are removed.
+     *
+     * @return the lowest portal water block of the closest column, or null if there is none in range
+     */
+    @Nullable
+    public BlockPos findNearest(ServerLevel level, BlockPos origin, int searchArea) {
+        int originChunkX = SectionPos.blockToSectionCoord(origin.getX());
+        int originChunkZ = SectionPos.blockToSectionCoord(origin.getZ());
+        int chunkRadius = SectionPos.blockToSectionCoord(searchArea) + 1;
+
+        Block portalBlock = TropicraftBlocks.PORTAL_WATER.get();
+        BlockPos.MutableBlockPos mutablePos = new BlockPos.MutableBlockPos();
+
+        long closest = 0;
+        double closestDistance = -1.0D;
+
+        for (int radius = 0; radius <= chunkRadius; radius++) {
+            // Anything in this ring is at least (radius - 1) chunks away, so stop once we can't do better
+            if (closestDistance >= 0.0D) {
+                double ringDistance = Math.max(0, radius - 1) * 16.0D;
+                if (ringDistance * ringDistance > closestDistance) {
+                    break;
+                }
+            }
+
+            for (int offsetX = -radius; offsetX <= radius; offsetX++) {
+                boolean edgeX = offsetX == -radius || offsetX == radius;
+                for (int offsetZ = -radius; offsetZ <= radius; offsetZ++) {
+                    if (!edgeX && offsetZ != -radius && offsetZ != radius) {
+                        continue;
+                    }
+
+                    LongSet chunkPortals = this.portalsByChunk.get(ChunkPos.asLong(originChunkX + offsetX, originChunkZ + offsetZ));
+                    if (chunkPortals == null) {
+                        continue;
+                    }
+
+                    LongIterator iterator = chunkPortals.iterator();
+                    while (iterator.hasNext()) {
+                        long pos = iterator.nextLong();
+                        int dx = BlockPos.getX(pos) - origin.getX();
+                        int dz = BlockPos.getZ(pos) - origin.getZ();
+                        if (Math.abs(dx) > searchArea || Math.abs(dz) > searchArea) {
+                            continue;
+                        }
+
+                        double distance = (double) dx * dx + (double) dz * dz;
+                        if (closestDistance >= 0.0D && distance >= closestDistance) {
+                            continue;
+                        }
+
+                        if (!level.getBlockState(mutablePos.set(pos)).is(portalBlock)) {
+                            iterator.remove();
+                            this.setDirty();
+                            continue;
+                        }
+
+                        closest = pos;
+                        closestDistance = distance;
+                    }
+                }
+            }
+        }
+
+        return closestDistance >= 0.0D ? BlockPos.of(closest) : null;
+    }
+
+    /**
+     * Rebuilds the entries for a chunk from its contents. Sections are skipped by their palette unless they
+     * can contain portal water, so chunks without portals cost a palette check per section.
+     */
+    private void indexChunk(LevelChunk chunk) {
+        Block portalBlock = TropicraftBlocks.PORTAL_WATER.get();
+        ChunkPos chunkPos = chunk.getPos();
+        LongSet found = null;
+
+        LevelChunkSection[] sections = chunk.getSections();
+        for (int index = 0; index < sections.length; index++) {
+            LevelChunkSection section = sections[index];
+            if (section.hasOnlyAir() || !section.maybeHas(state -> state.is(portalBlock))) {
+                continue;
+            }
+
+            int minY = SectionPos.sectionToBlockCoord(chunk.getSectionYFromSectionIndex(index));
+            for (int y = 0; y < 16; y++) {
+                for (int z = 0; z < 16; z++) {
+                    for (int x = 0; x < 16; x++) {
+                        if (!section.getBlockState(x, y, z).is(portalBlock) || this.isPortalBelow(sections, index, x, y, z, portalBlock)) {
+                            continue;
+                        }
+
+                        if (found == null) {
+                            found = new LongOpenHashSet();
+                        }
+                        found.add(BlockPos.asLong(chunkPos.getMinBlockX() + x, minY + y, chunkPos.getMinBlockZ() + z));
+                    }
+                }
+            }
+        }
+
+        LongSet previous = found != null ? this.portalsByChunk.put(chunkPos.toLong(), found) : this.portalsByChunk.remove(chunkPos.toLong());
+        if (previous == null ? found != null : !previous.equals(found)) {
+            this.setDirty();
+        }
+    }
+
+    private boolean isPortalBelow(LevelChunkSection[] sections, int index, int x, int y, int z, Block portalBlock) {
+        if (y > 0) {
+            return sections[index].getBlockState(x, y - 1, z).is(portalBlock);
+        }
+        return index > 0 && sections[index - 1].getBlockState(x, 15, z).is(portalBlock);
+    }
+
+    private boolean addPortal(long pos) {
+        long chunkKey = ChunkPos.asLong(SectionPos.blockToSectionCoord(BlockPos.getX(pos)), SectionPos.blockToSectionCoord(BlockPos.getZ(pos)));
+        return this.portalsByChunk.computeIfAbsent(chunkKey, k -> new LongOpenHashSet()).add(pos);
+    }
+}
@@ -1,23 +1,17 @@
 package net.tropicraft.core.common.dimension;
 
-import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
-import it.unimi.dsi.fastutil.longs.Long2ObjectMaps;
-import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
-import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import com.google.common.collect.ImmutableSet;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.server.level.ServerLevel;
-import net.minecraft.server.level.TicketType;
 import net.minecraft.tags.BlockTags;
 import net.minecraft.util.Mth;
 import net.minecraft.world.entity.Entity;
-import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.Blocks;
 import net.minecraft.world.level.block.StairBlock;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.level.chunk.LevelChunk;
-import net.minecraft.world.level.dimension.DimensionType;
 import net.minecraft.world.level.levelgen.Heightmap;
 import net.minecraft.world.level.portal.PortalInfo;
 import net.minecraft.world.phys.Vec3;
@@ -28,9 +22,9 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import javax.annotation.Nullable;
-import java.util.Arrays;
-import java.util.List;
-import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 
 // TODO: this could do with some significant rethinking & refactoring!
@@ -40,20 +34,15 @@ public class TropicsTeleporter implements ITeleporter {
     private static final Block PORTAL_WALL_BLOCK = Blocks.SANDSTONE; // todo tropics portal
     private static final Block PORTAL_BLOCK = TropicraftBlocks.PORTAL_WATER.get();
     private static final Block TELEPORTER_BLOCK = TropicraftBlocks.TELEPORT_WATER.get();
+    private static final Set<BlockState> VALID_BUILD_BLOCKS = ImmutableSet.of(
+            Blocks.SAND.defaultBlockState(),
+            Blocks.GRASS.defaultBlockState(),
+            Blocks.DIRT.defaultBlockState(),
+            TropicraftBlocks.PURIFIED_SAND.get().defaultBlockState());
 
-    private final ServerLevel world;
-
-    /**
-     * Stores successful portal placement locations for rapid lookup.
-     */
+    private static final int PORTAL_SEARCH_AREA = 148;
 
-    private final Long2ObjectMap<PortalPosition> destinationCoordinateCache = new Long2ObjectOpenHashMap<>(4096);
-
-    static final record PortalPosition(BlockPos pos, long lastUpdateTime) {
-        public PortalPosition touch(long time) {
-            return new PortalPosition(this.pos, time);
-        }
-    }
+    private final ServerLevel world;
 
     public TropicsTeleporter(ServerLevel world) {
         this.world = world;
@@ -63,7 +52,7 @@ public class TropicsTeleporter implements ITeleporter {
     @Override
     public PortalInfo getPortalInfo(Entity entity, ServerLevel destWorld, Function<ServerLevel, PortalInfo> defaultPortalInfo) {
         long startTime = System.currentTimeMillis();
-        PortalInfo portalInfo = placeInExistingPortal(entity);
+        PortalInfo portalInfo = placeInExistingPortal(entity, true);
 
         if (portalInfo == null) {
             makePortal(entity);
@@ -81,60 +70,27 @@ public class TropicsTeleporter implements ITeleporter {
     }
 
     public PortalInfo placeInExistingPortal(Entity entity) {
-        int searchArea = 148;
-        double closestPortalDistance = -1D;
-        int foundX = 0;
-        int foundY = 0;
-        int foundZ = 0;
-        int entityX = Mth.floor(entity.getOnPos().getX());
-        int entityZ = Mth.floor(entity.getOnPos().getZ());
-        BlockPos blockpos = BlockPos.ZERO;
-        boolean notInCache = true;
-
-        long queryPos = ChunkPos.asLong(entityX, entityZ);
-
-        if (destinationCoordinateCache.containsKey(queryPos)) {
-            PortalPosition portal = destinationCoordinateCache.get(queryPos);
-            closestPortalDistance = 0.0D;
-            blockpos = portal.pos;
-            destinationCoordinateCache.put(queryPos, portal.touch(world.getGameTime()));
-            notInCache = false;
-        } else {
-            BlockPos.MutableBlockPos mutablePos = new BlockPos.MutableBlockPos();
+        return this.placeInExistingPortal(entity, false);
+    }
 
-            for (int x = entityX - searchArea; x <= entityX + searchArea; x++) {
-                double distX = x + 0.5D - entity.getOnPos().getX();
+    private PortalInfo placeInExistingPortal(Entity entity, boolean countLookup) {
+        BlockPos origin = entity.getOnPos();
 
-                for (int z = entityZ - searchArea; z <= entityZ + searchArea; z++) {
-                    double distZ = z + 0.5D - entity.getOnPos().getZ();
+        PortalDestinationCache cache = PortalDestinationCache.get(this.world);
+        long cacheKey = PortalDestinationCache.key(origin);
 
-                    for (int y = world.getMaxBuildHeight() - 1; y >= 0; y--) {
-                        mutablePos.set(x, y, z);
-                        if (world.getBlockState(mutablePos).getBlock() == PORTAL_BLOCK) {
-                            mutablePos.move(Direction.DOWN);
-                            while (world.getBlockState(mutablePos).getBlock() == PORTAL_BLOCK) {
-                                --y;
-                                mutablePos.move(Direction.DOWN);
-                            }
-
-                            double distY = y + 0.5D - mutablePos.getY();
-                            double distance = distX * distX + distY * distY + distZ * distZ;
-                            if (closestPortalDistance < 0.0D || distance < closestPortalDistance) {
-                                closestPortalDistance = distance;
-                                foundX = x;
-                                foundY = y;
-                                foundZ = z;
-                            }
-                        }
-                    }
-                }
+        BlockPos portalPos = cache.get(this.world, cacheKey, PORTAL_BLOCK, countLookup);
+        if (portalPos == null) {
+            portalPos = TropicsPortalRegistry.get(this.world).findNearest(this.world, origin, PORTAL_SEARCH_AREA);
+            if (portalPos != null) {
+                cache.put(this.world, cacheKey, portalPos);
             }
         }
 
-        if (closestPortalDistance >= 0.0D) {
-            if (notInCache) {
-                this.destinationCoordinateCache.put(queryPos, new PortalPosition(blockpos, this.world.getGameTime()));
-            }
+        if (portalPos != null) {
+            int foundX = portalPos.getX();
+            int foundY = portalPos.getY();
+            int foundZ = portalPos.getZ();
 
             double newLocX = foundX + 0.5D;
             double newLocY = foundY + 0.5D;
@@ -154,111 +110,77 @@ public class TropicsTeleporter implements ITeleporter {
     }
 
     public boolean makePortal(Entity entity) {
-        int searchArea = 16;
-        double closestSpot = -1D;
-        int entityX = Mth.floor(entity.getX());
-        int entityY = Mth.floor(entity.getY());
-        int entityZ = Mth.floor(entity.getZ());
-        int foundX = entityX;
-        int foundY = entityY;
-        int foundZ = entityZ;
-
-        for (int x = entityX - searchArea; x <= entityX + searchArea; x++) {
-            double distX = (x + 0.5D) - entity.getX();
-            nextCoords:
-            for (int z = entityZ - searchArea; z <= entityZ + searchArea; z++) {
-                double distZ = (z + 0.5D) - entity.getZ();
-
-                // Find topmost solid block at this x,z location
-                int y = world.getMaxBuildHeight() - 1;
-                BlockPos pos = new BlockPos(x, y, z);
-                for (; y >= 63 - 1 && (world.getBlockState(pos).getBlock() == Blocks.AIR ||
-                        !getValidBuildBlocks().contains(world.getBlockState(pos))); pos = pos.below()) {
-                    y = pos.getY();
-                }
-                // Only generate portal between sea level and sea level + 20
-                if (y > 63 + 20 || y < 63) {
-                    continue;
-                }
+        this.buildPortal(entity.blockPosition(), PortalSiteSearch.searchNow(this.world, entity.position()));
+        return true;
+    }
 
-                BlockPos tryPos = new BlockPos(x, y, z);
-                if (getValidBuildBlocks().contains(world.getBlockState(tryPos))) {
-                    for (int xOffset = -2; xOffset <= 2; xOffset++) {
-                        for (int zOffset = -2; zOffset <= 2; zOffset++) {
-                            int otherY = world.getMaxBuildHeight() - 1;
-                            BlockPos pos1 = new BlockPos(x + xOffset, otherY, z + zOffset);
-                            BlockPos pos2 = tryPos.mutable();
-                            for (; otherY >= 63 && (world.getBlockState(pos1).getBlock() == Blocks.AIR ||
-                                    !world.getBlockState(pos2).isAir()); pos1 = pos1.below()) {
-                                otherY = pos1.getY();
-                            }
-                            if (Math.abs(y - otherY) >= 3) {
-                                continue nextCoords;
-                            }
+    /**
+     * Makes sure a portal exists near the entity before it is sent through, searching for a new portal site
+     * off the server thread if needed. Must be called from the server thread.
+     * <p>
+     * If the search or building the portal fails, the failure is logged and the future still completes, leaving
+     * {@link #getPortalInfo} to build the portal directly when the entity is sent through.
+     *
+     * @return a future completed on the server thread once a portal is in place, or cancelled if the search was
+     * dropped because the server stopped or the level unloaded
+     */
+    public CompletableFuture<Void> preparePortal(Entity entity) {
+        if (this.placeInExistingPortal(entity) != null) {
+            return CompletableFuture.completedFuture(null);
+        }
 
-                            //if (!getValidBuildBlocks().contains(world.getBlock(x + xOffset, otherY, z + zOffset))) {
-                            //    continue nextCoords;
-                            //}
-                        }
-                    }
+        BlockPos origin = entity.blockPosition();
+        CompletableFuture<Void> prepared = new CompletableFuture<>();
+        PortalSiteSearch.start(this.world, entity.position()).whenComplete((result, throwable) -> {
+            if (throwable instanceof CancellationException) {
+                prepared.cancel(false);
+                return;
+            }
 
-                    double distY = (y + 0.5D) - entity.getY();
-                    double distance = distX * distX + distY * distY + distZ * distZ;
-                    if (closestSpot < 0.0D || distance < closestSpot) {
-                        closestSpot = distance;
-                        foundX = x;
-                        foundY = y;
-                        foundZ = z;
-                    }
+            if (throwable != null) {
+                LOGGER.error("Failed to search for a portal site, building the portal when teleporting instead", throwable);
+            } else {
+                try {
+                    this.buildPortal(origin, result);
+                } catch (RuntimeException e) {
+                    LOGGER.error("Failed to build a portal, building it again when teleporting instead", e);
                 }
             }
-        }
+            prepared.complete(null);
+        });
+        return prepared;
+    }
+
+    private void buildPortal(BlockPos origin, PortalSiteSearch.Result result) {
+        PortalSiteSearch.Site site = result.site();
+        int foundX = site != null ? site.x() : origin.getX();
+        int foundZ = site != null ? site.z() : origin.getZ();
 
         int worldSpawnX = Mth.floor(foundX);//TODO + ((new Random()).nextBoolean() ? 3 : -3);
         int worldSpawnZ = Mth.floor(foundZ);//TODO + ((new Random()).nextBoolean() ? 3 : -3);
         int worldSpawnY = getTerrainHeightAt(worldSpawnX, worldSpawnZ);//world.getHeightValue(worldSpawnX, worldSpawnZ) - 2;
 
-        // Max distance to search in every direction for the nearest landmass to build a bridge to
-        int SEARCH_FOR_LAND_DISTANCE_MAX = 200;
-
         // If we can't find a spot (e.g. we're in the middle of the ocean),
-        // just put the portal at sea level
-        if (closestSpot < 0.0D) {
-            // Perhaps this was the culprit
-            Random r = new Random();
-            foundX += r.nextInt(16) - 8;
-            foundZ += r.nextInt(16) - 8;
-
-            foundY = worldSpawnY - 2;
-            boolean foundLand = false;
-
-            for (int dist = 1; !foundLand && dist < SEARCH_FOR_LAND_DISTANCE_MAX; dist++) {
-                for (Direction dir : Direction.Plane.HORIZONTAL) {
-                    BlockPos pos = new BlockPos(worldSpawnX, worldSpawnY, worldSpawnZ).relative(dir, 3 + dist);
-                    BlockState state = world.getBlockState(pos);
-                    if (getValidBuildBlocks().contains(state)) {
-                        foundLand = true;
-                        BlockPos buildpos = new BlockPos(worldSpawnX, worldSpawnY + 1, worldSpawnZ).relative(dir, 3);
-                        while (!buildpos.equals(pos.above())) {
-                            BlockState thatch = TropicraftBlocks.THATCH_BUNDLE.get().defaultBlockState();
-                            world.setBlockAndUpdate(buildpos, thatch);
-                            world.setBlockAndUpdate(buildpos.relative(dir.getClockWise()), thatch);
-                            world.setBlockAndUpdate(buildpos.relative(dir.getCounterClockWise()), thatch);
-                            buildpos = buildpos.relative(dir);
-                        }
-
-                        BlockPos stairPosMid = new BlockPos(pos.getX(), worldSpawnY + 1, worldSpawnZ);
-                        placeStairs(stairPosMid, dir.getOpposite());
-                        generateThatchBorder(worldSpawnX, worldSpawnY + 1, worldSpawnZ);
-                        break;
-                    }
-                }
+        // just put the portal at sea level, bridged to the nearest land the search found
+        PortalSiteSearch.Landing landing = result.landing();
+        if (site == null && landing != null) {
+            Direction dir = landing.direction();
+            BlockPos pos = new BlockPos(worldSpawnX, worldSpawnY, worldSpawnZ).relative(dir, 3 + landing.distance());
+            BlockPos buildpos = new BlockPos(worldSpawnX, worldSpawnY + 1, worldSpawnZ).relative(dir, 3);
+            while (!buildpos.equals(pos.above())) {
+                BlockState thatch = TropicraftBlocks.THATCH_BUNDLE.get().defaultBlockState();
+                world.setBlockAndUpdate(buildpos, thatch);
+                world.setBlockAndUpdate(buildpos.relative(dir.getClockWise()), thatch);
+                world.setBlockAndUpdate(buildpos.relative(dir.getCounterClockWise()), thatch);
+                buildpos = buildpos.relative(dir);
             }
+
+            BlockPos stairPosMid = new BlockPos(pos.getX(), worldSpawnY + 1, worldSpawnZ);
+            placeStairs(stairPosMid, dir.getOpposite());
+            generateThatchBorder(worldSpawnX, worldSpawnY + 1, worldSpawnZ);
         }
 
         buildTeleporterAt(worldSpawnX, worldSpawnY + 1, worldSpawnZ);
-
-        return true;
     }
 
     private void placeStairs(BlockPos pos, Direction dir) {
@@ -306,11 +228,15 @@ public class TropicsTeleporter implements ITeleporter {
      */
 
     public int getTerrainHeightAt(int x, int z) {
-        LevelChunk chunk2 = world.getChunk(x >> 4, z >> 4);
+        return getTerrainHeightAt(world.getChunk(x >> 4, z >> 4), x, z);
+    }
+
+    public static int getTerrainHeightAt(LevelChunk chunk2, int x, int z) {
         int worldSpawnY = chunk2.getHeight(Heightmap.Types.WORLD_SURFACE, x & 15, z & 15);
 
+        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
         for (int y = worldSpawnY; y > 0; y--) {
-            BlockState state = world.getBlockState(new BlockPos(x, y, z));
+            BlockState state = chunk2.getBlockState(pos.set(x, y, z));
 
             //TODO [1.17]: Confirm that these tags are going to work with modded blocks
             if (state.is(BlockTags.DIRT) || state.is(BlockTags.SAND) || state.is(Blocks.WATER) || state.is(BlockTags.BASE_STONE_OVERWORLD)) {
@@ -323,6 +249,10 @@ public class TropicsTeleporter implements ITeleporter {
     public void buildTeleporterAt(int x, int y, int z) {
         y = Math.max(y, 9);
 
+        TropicsPortalRegistry registry = TropicsPortalRegistry.get(this.world);
+        // The new portal may now be closer than whatever was cached around it
+        PortalDestinationCache.get(this.world).invalidateAround(new BlockPos(x, y, z), PORTAL_SEARCH_AREA);
+
         for (int yOffset = 4; yOffset >= -7; yOffset--) {
             for (int zOffset = -2; zOffset <= 2; zOffset++) {
                 for (int xOffset = -2; xOffset <= 2; xOffset++) {
@@ -359,30 +289,12 @@ public class TropicsTeleporter implements ITeleporter {
                         world.setBlock(pos.above(2), TropicraftBlocks.TIKI_TORCH.get().defaultBlockState().setValue(TikiTorchBlock.SECTION, TikiTorchBlock.TorchSection.MIDDLE), 3);
                         world.setBlock(pos.above(3), TropicraftBlocks.TIKI_TORCH.get().defaultBlockState().setValue(TikiTorchBlock.SECTION, TikiTorchBlock.TorchSection.UPPER), 3);
                     }
-                }
-            }
-        }
-    }
 
-    public void tick(long worldTime) {
-        if (worldTime % 100L == 0L) {
-            this.pruneCoordinateCache(worldTime);
-        }
-    }
-
-    private void pruneCoordinateCache(long gameTime) {
-        long sinceTime = gameTime - 300L;
-
-        ObjectIterator<Long2ObjectMap.Entry<PortalPosition>> iterator = Long2ObjectMaps.fastIterator(this.destinationCoordinateCache);
-        while (iterator.hasNext()) {
-            Long2ObjectMap.Entry<PortalPosition> entry = iterator.next();
-            PortalPosition position = entry.getValue();
-            if (position.lastUpdateTime < sinceTime) {
-                ChunkPos columnPos = new ChunkPos(entry.getLongKey());
-                DimensionType dimension = this.world.getLevel().dimensionType();
-                LOGGER.debug("Removing tropics portal ticket for {}:{}", dimension, columnPos);
-                this.world.getChunkSource().registerTickingTicket(TicketType.PORTAL, columnPos, 3, position.pos);
-                iterator.remove();
+                    // Register the bottom of each portal water column
+                    if (yOffset == -4 && xOffset > -2 && xOffset < 2 && zOffset > -2 && zOffset < 2) {
+                        registry.add(pos);
+                    }
+                }
             }
         }
     }
@@ -390,15 +302,10 @@ public class TropicsTeleporter implements ITeleporter {
     /**
      * TODO why in the world is this a thing?
      *
-     * @return List of valid block states to build portal on
+     * @return Whether the given state is valid to build a portal on
      */
 
-    private List<BlockState> getValidBuildBlocks() {
-        return Arrays.asList(
-                Blocks.SAND.defaultBlockState(),
-                Blocks.GRASS.defaultBlockState(),
-                Blocks.DIRT.defaultBlockState(),
-                TropicraftBlocks.PURIFIED_SAND.get().defaultBlockState());
+    public static boolean isValidBuildBlock(BlockState state) {
+        return VALID_BUILD_BLOCKS.contains(state);
     }
 }
-
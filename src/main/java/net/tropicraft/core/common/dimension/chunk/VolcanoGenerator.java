@@ -1,5 +1,8 @@
 package net.tropicraft.core.common.dimension.chunk;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableSet;
 import com.mojang.brigadier.CommandDispatcher;
 import com.mojang.brigadier.builder.LiteralArgumentBuilder;
@@ -8,10 +11,12 @@ import net.minecraft.ChatFormatting;
 import net.minecraft.commands.CommandSourceStack;
 import net.minecraft.commands.Commands;
 import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
 import net.minecraft.network.chat.*;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.util.Mth;
+import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.biome.Biome;
 import net.minecraft.world.level.biome.BiomeSource;
 import net.minecraft.world.level.block.Block;
@@ -19,6 +24,8 @@ import net.minecraft.world.level.block.Blocks;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.level.chunk.ChunkAccess;
 import net.minecraft.world.level.chunk.ChunkGenerator;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.chunk.ProtoChunk;
 import net.minecraft.world.level.levelgen.Heightmap;
 import net.minecraft.world.level.levelgen.WorldgenRandom;
 import net.minecraftforge.event.server.ServerStartingEvent;
@@ -31,6 +38,7 @@ import net.tropicraft.core.common.dimension.biome.TropicraftBiomes;
 import net.tropicraft.core.common.dimension.noise.NoiseModule;
 import net.tropicraft.core.common.dimension.noise.generator.Billowed;
 
+import javax.annotation.Nullable;
 import java.util.Random;
 import java.util.Set;
 import java.util.function.Supplier;
@@ -65,17 +73,40 @@ public class VolcanoGenerator {
 
     private static final int CHUNK_RANGE = MAX_RADIUS >> 4;
 
+    private final static int REGION_CHUNKS = 64; // was 32
+    private final static int REGION_OFFSET_CHUNKS = 16; // was 8
+    private final static int MAX_CACHED_SITES = 1024;
+
     private final static Supplier<BlockState> VOLCANO_BLOCK = TropicraftBlocks.CHUNK.lazyMap(Block::defaultBlockState);
     private final static Supplier<BlockState> LAVA_BLOCK = () -> Blocks.LAVA.defaultBlockState();
     private final static Supplier<BlockState> SAND_BLOCK = TropicraftBlocks.VOLCANIC_SAND.lazyMap(b -> b.defaultBlockState().setValue(VolcanicSandBlock.HOT, true));
 
+    // Height field scratch space, chunks are generated on several worker threads at once
+    private static final ThreadLocal<double[]> HEIGHTS = ThreadLocal.withInitial(() -> new double[CHUNK_SIZE_X * CHUNK_SIZE_Z]);
+
     private final BiomeSource biomeSource;
     private final ChunkGenerator chunkGenerator;
 
+    // Every 64x64 chunk region holds exactly one volcano candidate, so the sites are memoized per region
+    private final LoadingCache<Long, VolcanoSite> sites;
+
     public VolcanoGenerator(long worldSeed, BiomeSource biomeSource, ChunkGenerator chunkGenerator) {
         this.worldSeed = worldSeed;
         this.biomeSource = biomeSource;
         this.chunkGenerator = chunkGenerator;
+        this.sites = CacheBuilder.newBuilder()
+                .maximumSize(MAX_CACHED_SITES)
+                .build(CacheLoader.from(this::computeSite));
+    }
+
+    /**
+     * A volcano candidate for a single region, along with everything needed to evaluate its shape.
+     * The posY of {@link #center()} holds the biome type, as with {@link #getVolcanoNear(BiomeSource, long, int, int, int)}.
+     */
+    public record VolcanoSite(int chunkX, int chunkZ, BlockPos center, int radiusX, int radiusZ, NoiseModule noise, int heightOffset) {
+        public int biome() {
+            return center.getY();
+        }
     }
 
     @SubscribeEvent
@@ -120,13 +151,15 @@ public class VolcanoGenerator {
     }
 
     public ChunkAccess generate(int chunkX, int chunkZ, ChunkAccess chunk, WorldgenRandom random) {
-        BlockPos volcanoCoords = getVolcanoNear(this.biomeSource, this.worldSeed, chunkX, chunkZ, 0);
+        VolcanoSite site = getVolcanoSiteNear(chunkX, chunkZ, 0);
 
-        if (volcanoCoords == null) {
+        if (site == null) {
             return chunk;
         }
 
-        int HEIGHT_OFFSET = VolcanoGenerator.getHeightOffsetForBiome(volcanoCoords.getY());
+        BlockPos volcanoCoords = site.center();
+
+        int HEIGHT_OFFSET = site.heightOffset();
         int calderaCutoff = CALDERA_CUTOFF + HEIGHT_OFFSET;
         int lavaLevel = LAVA_LEVEL + HEIGHT_OFFSET;
         int volcanoTop = VOLCANO_TOP + HEIGHT_OFFSET;
@@ -138,15 +171,15 @@ public class VolcanoGenerator {
         int volcCenterX = volcanoCoords.getX();
         int volcCenterZ = volcanoCoords.getZ();
 
-        long seed = getPositionSeed(volcCenterX, volcCenterZ);
-        Random rand = new Random(seed);
+        // the shape values are memoized on the site, but the crust holes continue the same random sequence
+        Random rand = new Random(getPositionSeed(volcCenterX, volcCenterZ));
+        rand.nextInt(MAX_RADIUS - MIN_RADIUS);
+        rand.nextInt(MAX_RADIUS - MIN_RADIUS);
 
-        int radiusX = rand.nextInt(MAX_RADIUS - MIN_RADIUS) + MIN_RADIUS;
-        int radiusZ = rand.nextInt(MAX_RADIUS - MIN_RADIUS) + MIN_RADIUS;
+        int radiusX = site.radiusX();
+        int radiusZ = site.radiusZ();
 
-        NoiseModule volcNoise = getNoise(seed);
-
-        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+        NoiseModule volcNoise = site.noise();
 
         // if this chunk contains the volcano center
         if (volcanoCoords.getX() <= chunkX + 15 && volcanoCoords.getX() >= chunkX && volcanoCoords.getZ() <= chunkZ + 15 && volcanoCoords.getZ() >= chunkZ) {
@@ -154,53 +187,70 @@ public class VolcanoGenerator {
             chunk.setBlockState(volcanoBlockPos, TropicraftBlocks.VOLCANO.get().defaultBlockState(), false);
         }
 
+        // Sample the whole height field up front, only paying for noise in columns inside the volcano
+        double[] heights = HEIGHTS.get();
+        boolean anyColumn = false;
         for (int x = 0; x < CHUNK_SIZE_X; x++) {
             for (int z = 0; z < CHUNK_SIZE_Z; z++) {
-
                 int relativeX = ((x + chunkX) - volcCenterX);
                 int relativeZ = ((z + chunkZ) - volcCenterZ);
 
-                double volcanoHeight = getVolcanoHeight(relativeX, relativeZ, radiusX, radiusZ, volcNoise);
-                float distanceSquared = getDistanceSq(relativeX, relativeZ, radiusX, radiusZ);
+                if (getDistanceSq(relativeX, relativeZ, radiusX, radiusZ) < 1) {
+                    heights[x * CHUNK_SIZE_Z + z] = getVolcanoHeight(relativeX, relativeZ, radiusX, radiusZ, volcNoise);
+                    anyColumn = true;
+                } else {
+                    heights[x * CHUNK_SIZE_Z + z] = Double.NaN;
+                }
+            }
+        }
+
+        if (!anyColumn) {
+            return chunk;
+        }
+
+        BlockState volcanoBlock = VOLCANO_BLOCK.get();
+        BlockState sandBlock = SAND_BLOCK.get();
+        BlockState lavaBlock = LAVA_BLOCK.get();
+        BlockState airBlock = Blocks.AIR.defaultBlockState();
+        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+
+        for (int x = 0; x < CHUNK_SIZE_X; x++) {
+            for (int z = 0; z < CHUNK_SIZE_Z; z++) {
+                double volcanoHeight = heights[x * CHUNK_SIZE_Z + z];
+                if (Double.isNaN(volcanoHeight)) {
+                    continue;
+                }
 
                 int groundHeight = chunk.getHeight(Heightmap.Types.OCEAN_FLOOR_WG, x, z);
                 groundHeight = Math.min(groundHeight, lavaLevel - 3);
 
-                if (distanceSquared < 1) {
-                    for (int y = CHUNK_SIZE_Y; y > 0; y--) {
-                        pos.set(x, y, z);
-
-                        if (volcanoHeight + groundHeight < calderaCutoff) {
-                            if (volcanoHeight + groundHeight <= volcanoTop) {
-                                if (y <= volcanoHeight + groundHeight) {
-                                    if (y > groundHeight) {
-                                        this.placeBlock(pos, VOLCANO_BLOCK, chunk);
-                                    } else if (y > groundHeight - 2) {
-                                        this.placeBlock(pos, SAND_BLOCK, chunk);
-                                    }
-                                }
-                            } else if (y == volcanoCrust - 1) {
-                                if (random.nextInt(3) != 0) {
-                                    this.placeBlock(pos, VOLCANO_BLOCK, chunk);
-                                }
-                            } else if (y <= volcanoTop) {
-                                placeBlock(pos, VOLCANO_BLOCK, chunk);
-                            }
-                        } else {
-                            // Flat area on top of the volcano
-                            if (y == volcanoCrust && rand.nextInt(CRUST_HOLE_CHANCE) != 0) {
-                                placeBlock(pos, VOLCANO_BLOCK, chunk);
-                            } else if (y <= lavaLevel) {
-                                placeBlock(pos, LAVA_BLOCK, chunk);
-                            } else {
-                                placeBlock(pos, Blocks.AIR::defaultBlockState, chunk);
-                            }
+                double columnHeight = volcanoHeight + groundHeight;
+                if (columnHeight < calderaCutoff) {
+                    if (columnHeight <= volcanoTop) {
+                        int top = (int) Math.floor(columnHeight);
+                        this.fillColumn(chunk, x, z, groundHeight + 1, top, volcanoBlock, pos);
+                        this.fillColumn(chunk, x, z, groundHeight - 1, Math.min(groundHeight, top), sandBlock, pos);
+                    } else {
+                        this.fillColumn(chunk, x, z, volcanoCrust, volcanoTop, volcanoBlock, pos);
+                        if (volcanoCrust - 1 > 0 && volcanoCrust - 1 <= CHUNK_SIZE_Y && random.nextInt(3) != 0) {
+                            this.fillColumn(chunk, x, z, volcanoCrust - 1, volcanoCrust - 1, volcanoBlock, pos);
                         }
+                        this.fillColumn(chunk, x, z, 1, volcanoCrust - 2, volcanoBlock, pos);
+                    }
+                } else {
+                    // Flat area on top of the volcano
+                    this.fillColumn(chunk, x, z, lavaLevel + 1, CHUNK_SIZE_Y, airBlock, pos);
+                    if (volcanoCrust > 0 && volcanoCrust <= CHUNK_SIZE_Y && rand.nextInt(CRUST_HOLE_CHANCE) != 0) {
+                        this.fillColumn(chunk, x, z, volcanoCrust, volcanoCrust, volcanoBlock, pos);
                     }
+                    this.fillColumn(chunk, x, z, 1, lavaLevel, lavaBlock, pos);
                 }
             }
         }
 
+        // The runs bypass the per-block heightmap updates, so rebuild the heightmaps once for the whole chunk
+        Heightmap.primeHeightmaps(chunk, chunk.getStatus().heightmapsAfter());
+
         return chunk;
     }
 
@@ -236,28 +286,17 @@ public class VolcanoGenerator {
      */
     // TODO Fix the above issues
     public int getVolcanoHeight(int groundHeight, int x, int z) {
-        BlockPos volcanoCoords = getVolcanoNear(this.biomeSource, this.worldSeed, x >> 4, z >> 4, 0);
-        if (volcanoCoords == null) {
+        VolcanoSite site = getVolcanoSiteNear(x >> 4, z >> 4, 0);
+        if (site == null) {
             return -1;
         }
 
-        int volcCenterX = volcanoCoords.getX();
-        int volcCenterZ = volcanoCoords.getZ();
-
-        long seed = getPositionSeed(volcCenterX, volcCenterZ);
-        Random rand = new Random(seed);
-
-        int radiusX = rand.nextInt(MAX_RADIUS - MIN_RADIUS) + MIN_RADIUS;
-        int radiusZ = rand.nextInt(MAX_RADIUS - MIN_RADIUS) + MIN_RADIUS;
-
-        NoiseModule volcNoise = getNoise(seed);
+        int relativeX = x - site.center().getX();
+        int relativeZ = z - site.center().getZ();
 
-        int relativeX = x - volcCenterX;
-        int relativeZ = z - volcCenterZ;
+        double ret = getVolcanoHeight(relativeX, relativeZ, site.radiusX(), site.radiusZ(), site.noise());
 
-        double ret = getVolcanoHeight(relativeX, relativeZ, radiusX, radiusZ, volcNoise);
-
-        int heightOffset = getHeightOffsetForBiome(volcanoCoords.getY());
+        int heightOffset = site.heightOffset();
         int lavaLevel = LAVA_LEVEL + heightOffset;
         int volcanoCrust = VOLCANO_CRUST + heightOffset;
         groundHeight = Math.min(groundHeight, lavaLevel - 3);
@@ -280,12 +319,39 @@ public class VolcanoGenerator {
         return steepness / distanceSquared * perlin - steepness - 2;
     }
 
-    public void placeBlock(BlockPos pos, Supplier<BlockState> blockState, ChunkAccess chunk) {
-        chunk.setBlockState(pos, blockState.get(), false);
-    }
+    /**
+     * Writes a vertical run of the given state into the chunk sections, clamped to [1, {@link #CHUNK_SIZE_Y}]
+     * and the build height. Heightmaps are not updated; light sources are still registered with proto chunks.
+     */
+    private void fillColumn(ChunkAccess chunk, int x, int z, int minY, int maxY, BlockState state, BlockPos.MutableBlockPos pos) {
+        minY = Math.max(Math.max(minY, 1), chunk.getMinBuildHeight());
+        maxY = Math.min(Math.min(maxY, CHUNK_SIZE_Y), chunk.getMaxBuildHeight() - 1);
+        if (minY > maxY) {
+            return;
+        }
 
-    public BlockState getBlockState(BlockPos pos, ChunkAccess chunk) {
-        return chunk.getBlockState(pos);
+        boolean emitsLight = state.getLightEmission() != 0 && chunk instanceof ProtoChunk;
+        int blockX = chunk.getPos().getMinBlockX() + x;
+        int blockZ = chunk.getPos().getMinBlockZ() + z;
+
+        int sectionY = SectionPos.blockToSectionCoord(minY);
+        int maxSectionY = SectionPos.blockToSectionCoord(maxY);
+        for (; sectionY <= maxSectionY; sectionY++) {
+            LevelChunkSection section = chunk.getSection(chunk.getSectionIndexFromSectionY(sectionY));
+            if (state.isAir() && section.hasOnlyAir()) {
+                continue;
+            }
+
+            int sectionMinY = SectionPos.sectionToBlockCoord(sectionY);
+            int from = Math.max(minY, sectionMinY);
+            int to = Math.min(maxY, sectionMinY + 15);
+            for (int y = from; y <= to; y++) {
+                section.setBlockState(x, y & 15, z, state, false);
+                if (emitsLight) {
+                    ((ProtoChunk) chunk).addLight(pos.set(blockX, y, blockZ));
+                }
+            }
+        }
     }
 
     /**
@@ -294,8 +360,8 @@ public class VolcanoGenerator {
      * mean more spawning)
      */
     public int canGenVolcanoAtCoords(BiomeSource biomeSource, long worldSeed, int chunkX, int chunkZ) {
-        byte numChunks = 64; // was 32
-        byte offsetChunks = 16; // was 8
+        byte numChunks = REGION_CHUNKS;
+        byte offsetChunks = REGION_OFFSET_CHUNKS;
         int oldi = chunkX;
         int oldj = chunkZ;
 
@@ -345,6 +411,11 @@ public class VolcanoGenerator {
      * The posY of the returned object should be used as the volcano radius
      */
     public BlockPos getVolcanoNear(BiomeSource biomeSource, long worldSeed, int chunkX, int chunkZ, int maxRadius) {
+        if (biomeSource == this.biomeSource && worldSeed == this.worldSeed) {
+            VolcanoSite site = getVolcanoSiteNear(chunkX, chunkZ, maxRadius);
+            return site != null ? site.center() : null;
+        }
+
         maxRadius = maxRadius + CHUNK_RANGE;
 
         for (int radius = 0; radius <= maxRadius; radius++) {
@@ -368,6 +439,69 @@ public class VolcanoGenerator {
         return null;
     }
 
+    /**
+     * Returns the memoized volcano site that {@link #getVolcanoNear(BiomeSource, long, int, int, int)} would find
+     * for this generator, otherwise returns null.
+     * Only the regions overlapping the search square are visited, and the ring scan order is preserved by
+     * preferring the smallest ring, then the smallest x offset, then the smallest z offset.
+     */
+    @Nullable
+    public VolcanoSite getVolcanoSiteNear(int chunkX, int chunkZ, int maxRadius) {
+        maxRadius = maxRadius + CHUNK_RANGE;
+
+        int minRegionX = Math.floorDiv(chunkX - maxRadius, REGION_CHUNKS);
+        int maxRegionX = Math.floorDiv(chunkX + maxRadius, REGION_CHUNKS);
+        int minRegionZ = Math.floorDiv(chunkZ - maxRadius, REGION_CHUNKS);
+        int maxRegionZ = Math.floorDiv(chunkZ + maxRadius, REGION_CHUNKS);
+
+        VolcanoSite closest = null;
+        int closestRadius = Integer.MAX_VALUE;
+        int closestOffsetX = 0;
+        int closestOffsetZ = 0;
+
+        for (int regionX = minRegionX; regionX <= maxRegionX; regionX++) {
+            for (int regionZ = minRegionZ; regionZ <= maxRegionZ; regionZ++) {
+                VolcanoSite site = this.sites.getUnchecked(ChunkPos.asLong(regionX, regionZ));
+                int offsetX = site.chunkX() - chunkX;
+                int offsetZ = site.chunkZ() - chunkZ;
+                int radius = Math.max(Math.abs(offsetX), Math.abs(offsetZ));
+                if (radius > maxRadius) {
+                    continue;
+                }
+
+                if (radius < closestRadius
+                        || radius == closestRadius && (offsetX < closestOffsetX || offsetX == closestOffsetX && offsetZ < closestOffsetZ)) {
+                    closest = site;
+                    closestRadius = radius;
+                    closestOffsetX = offsetX;
+                    closestOffsetZ = offsetZ;
+                }
+            }
+        }
+
+        return closest;
+    }
+
+    private VolcanoSite computeSite(long regionKey) {
+        int regionX = ChunkPos.getX(regionKey);
+        int regionZ = ChunkPos.getZ(regionKey);
+
+        long regionSeed = (long) regionX * 341873128712L + (long) regionZ * 132897987541L + this.worldSeed + (long) 4291726;
+        Random regionRand = new Random(regionSeed);
+        int chunkX = regionX * REGION_CHUNKS + regionRand.nextInt(REGION_CHUNKS - REGION_OFFSET_CHUNKS);
+        int chunkZ = regionZ * REGION_CHUNKS + regionRand.nextInt(REGION_CHUNKS - REGION_OFFSET_CHUNKS);
+
+        int biome = canGenVolcanoAtCoords(this.biomeSource, this.worldSeed, chunkX, chunkZ);
+        BlockPos center = new BlockPos((chunkX << 4) + 8, biome, (chunkZ << 4) + 8);
+
+        long seed = getPositionSeed(center.getX(), center.getZ());
+        Random rand = new Random(seed);
+        int radiusX = rand.nextInt(MAX_RADIUS - MIN_RADIUS) + MIN_RADIUS;
+        int radiusZ = rand.nextInt(MAX_RADIUS - MIN_RADIUS) + MIN_RADIUS;
+
+        return new VolcanoSite(chunkX, chunkZ, center, radiusX, radiusZ, getNoise(seed), getHeightOffsetForBiome(biome));
+    }
+
     public static int getHeightOffsetForBiome(int biome) {
         return biome == SURFACE_BIOME ? 0 : OCEAN_HEIGHT_OFFSET;
     }
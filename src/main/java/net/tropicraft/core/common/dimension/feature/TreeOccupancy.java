@@ -0,0 +1,85 @@
+package net.tropicraft.core.common.dimension.feature;
+
+import it.unimi.dsi.fastutil.longs.Long2ByteMap;
+import it.unimi.dsi.fastutil.longs.Long2ByteOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.tags.BlockTags;
+import net.minecraft.world.level.WorldGenLevel;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.chunk.ChunkStatus;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.levelgen.feature.Feature;
+import net.minecraft.world.level.levelgen.feature.TreeFeature;
+
+/**
+ * Answers whether blocks are free for a tree, for the checks a tree feature makes before it starts placing.
+ * <p>
+ * Each section the checks touch is sorted once by its palette: sections with nothing but air, and sections with
+ * nothing but air and leaves, answer without reading any blocks, so a tree growing into open sky or a canopy costs
+ * almost nothing to check. Only sections holding something else are read block by block. Make one per placement
+ * attempt and drop it once blocks start being placed, since it doesn't see them.
+ */
+public final class TreeOccupancy {
+    private static final byte UNKNOWN = 0;
+    private static final byte AIR = 1;
+    private static final byte AIR_OR_LEAVES = 2;
+    private static final byte MIXED = 3;
+
+    private final WorldGenLevel world;
+    private final Long2ByteMap sections = new Long2ByteOpenHashMap();
+    private final BlockPos.MutableBlockPos checkPos = new BlockPos.MutableBlockPos();
+
+    public TreeOccupancy(WorldGenLevel world) {
+        this.world = world;
+    }
+
+    /**
+     * Same as {@link TreeFeature#isAirOrLeaves}.
+     */
+    public boolean isAirOrLeaves(int x, int y, int z) {
+        byte section = this.getSection(x, y, z);
+        if (section == AIR || section == AIR_OR_LEAVES) {
+            return true;
+        }
+        return TreeFeature.isAirOrLeaves(this.world, this.checkPos.set(x, y, z));
+    }
+
+    /**
+     * Same as {@link Feature#isAir}.
+     */
+    public boolean isAir(int x, int y, int z) {
+        if (this.getSection(x, y, z) == AIR) {
+            return true;
+        }
+        return this.world.isStateAtPosition(this.checkPos.set(x, y, z), BlockState::isAir);
+    }
+
+    private byte getSection(int x, int y, int z) {
+        long key = SectionPos.asLong(SectionPos.blockToSectionCoord(x), SectionPos.blockToSectionCoord(y), SectionPos.blockToSectionCoord(z));
+        byte section = this.sections.get(key);
+        if (section == UNKNOWN) {
+            section = this.classify(SectionPos.blockToSectionCoord(x), y, SectionPos.blockToSectionCoord(z));
+            this.sections.put(key, section);
+        }
+        return section;
+    }
+
+    private byte classify(int chunkX, int y, int chunkZ) {
+        if (y < this.world.getMinBuildHeight() || y >= this.world.getMaxBuildHeight() || !this.world.hasChunk(chunkX, chunkZ)) {
+            // Leave these to the level, which knows what to do with them
+            return MIXED;
+        }
+
+        // Chunks around a feature are still generating, so don't ask for a finished one
+        ChunkAccess chunk = this.world.getChunk(chunkX, chunkZ, ChunkStatus.EMPTY);
+        LevelChunkSection section = chunk.getSection(chunk.getSectionIndex(y));
+        if (section.hasOnlyAir()) {
+            return AIR;
+        } else if (!section.maybeHas(state -> !state.isAir() && !state.is(BlockTags.LEAVES))) {
+            return AIR_OR_LEAVES;
+        }
+        return MIXED;
+    }
+}
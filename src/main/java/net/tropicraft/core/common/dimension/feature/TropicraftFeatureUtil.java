@@ -6,7 +6,6 @@ import net.minecraft.world.level.WorldGenLevel;
 import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.Blocks;
 import net.minecraft.world.level.block.state.BlockState;
-import net.minecraft.world.level.levelgen.feature.TreeFeature;
 
 public class TropicraftFeatureUtil {
 
@@ -15,10 +14,14 @@ public class TropicraftFeatureUtil {
     }
 
     public static boolean isBBAvailable(final WorldGenLevel world, final BlockPos pos, final int height) {
+        return isBBAvailable(new TreeOccupancy(world), world, pos, height);
+    }
+
+    public static boolean isBBAvailable(final TreeOccupancy occupancy, final WorldGenLevel world, final BlockPos pos, final int height) {
         for (int y = 0; y <= 1 + height; y++) {
-            BlockPos checkPos = pos.above(y);
+            int checkY = pos.getY() + y;
             int size = 1;
-            if (checkPos.getY() < world.getMinBuildHeight() || checkPos.getY() >= world.getMaxBuildHeight()) {
+            if (checkY < world.getMinBuildHeight() || checkY >= world.getMaxBuildHeight()) {
                 return false;
             }
 
@@ -30,8 +33,12 @@ public class TropicraftFeatureUtil {
                 size = 2;
             }
 
-            if (BlockPos.betweenClosedStream(checkPos.offset(-size, 0, -size), checkPos.offset(size, 0, size)).anyMatch(p -> !TreeFeature.isAirOrLeaves(world, p))) {
-                return false;
+            for (int x = pos.getX() - size; x <= pos.getX() + size; x++) {
+                for (int z = pos.getZ() - size; z <= pos.getZ() + size; z++) {
+                    if (!occupancy.isAirOrLeaves(x, checkY, z)) {
+                        return false;
+                    }
+                }
             }
         }
 
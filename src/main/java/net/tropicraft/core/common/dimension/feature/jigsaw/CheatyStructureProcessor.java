@@ -15,6 +15,7 @@ public abstract class CheatyStructureProcessor extends StructureProcessor {
 
     protected boolean setBlockState(LevelReader world, BlockPos pos, BlockState state) {
         if (world instanceof LevelAccessor) {
+            PieceColumnHeights.forgetColumn(pos);
             return ((LevelAccessor) world).setBlock(pos, state, Block.UPDATE_INVISIBLE | Block.UPDATE_KNOWN_SHAPE);
         }
         return false;
@@ -1,11 +1,15 @@
 package net.tropicraft.core.common.dimension.feature.jigsaw;
 
 import com.google.common.base.Preconditions;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.world.level.LevelReader;
 import net.minecraft.world.level.block.Blocks;
 import net.minecraft.world.level.block.JigsawBlock;
+import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.level.levelgen.Heightmap;
 import net.minecraft.world.level.levelgen.structure.BoundingBox;
 import net.minecraft.world.level.levelgen.structure.templatesystem.StructurePlaceSettings;
@@ -15,9 +19,8 @@ import net.minecraft.world.phys.Vec3;
 import net.tropicraft.Constants;
 
 import javax.annotation.Nullable;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.WeakHashMap;
-import java.util.stream.Collectors;
 
 public abstract class PathStructureProcessor extends CheatyStructureProcessor {
 
@@ -50,8 +53,48 @@ public abstract class PathStructureProcessor extends CheatyStructureProcessor {
         }
     }
 
-    // Cache vectors for this structure to avoid redoing work
-    private static final WeakHashMap<StructurePlaceSettings, List<PathVector>> VECTOR_CACHE = new WeakHashMap<>(); 
+    // A path_center jigsaw as stored in the template, before any rotation or offset
+    private record PathMarker(BlockPos pos, BlockState state) {}
+
+    // The vectors worked out for the piece a thread is placing
+    private record PieceVectors(StructureTemplate template, StructurePlaceSettings settings, BlockPos seedPos, List<PathVector> vectors) {}
+
+    // Markers only depend on the template, so they're found once per template and shared by every worldgen thread
+    private static final LoadingCache<StructureTemplate, List<PathMarker>> TEMPLATE_MARKERS = CacheBuilder.newBuilder()
+            .weakKeys()
+            .build(CacheLoader.from(PathStructureProcessor::findPathMarkers));
+
+    // Vectors depend on the piece's placement and the terrain. This relies on every block of a piece being processed
+    // on one thread, one piece after another: StructureTemplate.placeInWorld runs all of a piece's blocks through its
+    // processors in one call, and a thread only ever places one piece at a time. A piece is recognised by its
+    // template, the identity of its placement settings (made fresh for each piece) and its seed position, so a
+    // settings object that happens to be reused for another template or position is never mistaken for the last piece
+    private static final ThreadLocal<PieceVectors> PIECE_VECTORS = new ThreadLocal<>();
+
+    private static List<PathMarker> findPathMarkers(StructureTemplate template) {
+        return template.filterBlocks(BlockPos.ZERO, new StructurePlaceSettings(), Blocks.JIGSAW, false).stream() // Find all jigsaw blocks
+                .filter(b -> b.nbt.getString("target").equals(Constants.MODID + ":path_center")) // Filter for vector markers
+                .map(b -> new PathMarker(b.pos, b.state))
+                .toList();
+    }
+
+    private static List<PathVector> getPieceVectors(LevelReader level, BlockPos seedPos, StructurePlaceSettings settings, StructureTemplate template) {
+        PieceVectors piece = PIECE_VECTORS.get();
+        if (piece != null && piece.template() == template && piece.settings() == settings && piece.seedPos().equals(seedPos)) {
+            return piece.vectors();
+        }
+
+        List<PathVector> vectors = new ArrayList<>();
+        for (PathMarker marker : TEMPLATE_MARKERS.getUnchecked(template)) {
+            BlockPos pos = StructureTemplate.calculateRelativePosition(settings, marker.pos()).offset(seedPos);
+            Direction facing = JigsawBlock.getFrontFacing(marker.state().rotate(settings.getRotation()));
+            // Convert pos to structure local, extract facing
+            vectors.add(new PathVector(level.getHeightmapPos(Heightmap.Types.WORLD_SURFACE_WG, pos).subtract(seedPos), facing));
+        }
+
+        PIECE_VECTORS.set(new PieceVectors(template, settings, seedPos, vectors));
+        return vectors;
+    }
 
     @Nullable
     protected Direction.Axis getPathDirection(LevelReader level, BlockPos seedPos, StructureTemplate.StructureBlockInfo current, StructurePlaceSettings settings, StructureTemplate template) {
@@ -63,18 +106,13 @@ public abstract class PathStructureProcessor extends CheatyStructureProcessor {
          *  the jigsaw block to the end of the structure in that direction, and 1 block to
          *  either side.
          */
-    	final StructurePlaceSettings infiniteBounds = settings.copy();
-    	infiniteBounds.setBoundingBox(BoundingBox.infinite());
-        return VECTOR_CACHE.computeIfAbsent(settings, s ->
-                        template.filterBlocks(seedPos, infiniteBounds, Blocks.JIGSAW, true).stream() // Find all jigsaw blocks
-                                .filter(b -> b.nbt.getString("target").equals(Constants.MODID + ":path_center")) // Filter for vector markers
-//                		.peek(bi -> setBlockState(world, world.getHeight(Type.WORLD_SURFACE_WG, bi.pos), bi.state))
-                                .map(bi -> new PathVector(level.getHeightmapPos(Heightmap.Types.WORLD_SURFACE_WG, bi.pos).subtract(seedPos), JigsawBlock.getFrontFacing(bi.state))) // Convert pos to structure local, extract facing
-                                .collect(Collectors.toList()))
-                .stream()
-                .filter(pv -> pv.contains(current.pos.subtract(seedPos), settings)) // Find vectors that contain this block
-                .findFirst() // If there's more than one, we just choose the first, better some attempt than nothing
-                .map(pv -> pv.dir.getAxis())
-                .orElse(null);
+        BlockPos relativePos = current.pos.subtract(seedPos);
+        for (PathVector vector : getPieceVectors(level, seedPos, settings, template)) {
+            // If there's more than one, we just choose the first, better some attempt than nothing
+            if (vector.contains(relativePos, settings)) {
+                return vector.dir.getAxis();
+            }
+        }
+        return null;
     }
 }
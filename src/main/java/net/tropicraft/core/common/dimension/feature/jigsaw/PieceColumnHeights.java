@@ -0,0 +1,72 @@
+package net.tropicraft.core.common.dimension.feature.jigsaw;
+
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.LevelReader;
+import net.minecraft.world.level.levelgen.Heightmap;
+import net.minecraft.world.level.levelgen.structure.templatesystem.StructurePlaceSettings;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Heightmap reads for the structure piece a worldgen thread is placing, shared by the terrain-following processors.
+ * <p>
+ * Every block of a piece goes through its processors on the same thread, and the blocks of a piece keep asking about
+ * the same few columns, so each column is only read from the heightmap once per piece. Columns that a processor
+ * places blocks in through {@link CheatyStructureProcessor#setBlockState} are read again.
+ */
+final class PieceColumnHeights {
+    private static final int UNKNOWN = Integer.MIN_VALUE;
+
+    private static final ThreadLocal<PieceColumnHeights> CURRENT = ThreadLocal.withInitial(PieceColumnHeights::new);
+
+    private final Map<Heightmap.Types, Long2IntMap> heights = new EnumMap<>(Heightmap.Types.class);
+
+    private StructurePlaceSettings settings;
+    private BlockPos seedPos;
+
+    private PieceColumnHeights() {
+    }
+
+    /**
+     * @return the heights for the piece with the given placement, forgetting those of the last piece if it's another
+     */
+    static PieceColumnHeights get(StructurePlaceSettings settings, BlockPos seedPos) {
+        PieceColumnHeights current = CURRENT.get();
+        if (current.settings != settings || !seedPos.equals(current.seedPos)) {
+            current.heights.values().forEach(Map::clear);
+            current.settings = settings;
+            current.seedPos = seedPos;
+        }
+        return current;
+    }
+
+    /**
+     * Forgets the column of the given position, for when a block is placed in it while processing.
+     */
+    static void forgetColumn(BlockPos pos) {
+        long key = ChunkPos.asLong(pos.getX(), pos.getZ());
+        for (Long2IntMap columns : CURRENT.get().heights.values()) {
+            columns.remove(key);
+        }
+    }
+
+    int getHeight(LevelReader level, Heightmap.Types type, int x, int z) {
+        Long2IntMap columns = this.heights.computeIfAbsent(type, t -> {
+            Long2IntMap map = new Long2IntOpenHashMap();
+            map.defaultReturnValue(UNKNOWN);
+            return map;
+        });
+
+        long key = ChunkPos.asLong(x, z);
+        int height = columns.get(key);
+        if (height == UNKNOWN) {
+            height = level.getHeight(type, x, z);
+            columns.put(key, height);
+        }
+        return height;
+    }
+}
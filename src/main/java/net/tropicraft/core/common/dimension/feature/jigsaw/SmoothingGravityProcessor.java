@@ -6,6 +6,7 @@ import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.core.Direction.Axis;
 import net.minecraft.core.Direction.AxisDirection;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.level.LevelReader;
 import net.minecraft.world.level.levelgen.Heightmap;
 import net.minecraft.world.level.levelgen.Heightmap.Types;
@@ -41,16 +42,22 @@ public class SmoothingGravityProcessor extends PathStructureProcessor {
         if (pathDir == null) {
             pathDir = Axis.X; // Better than nothing
         }
+        PieceColumnHeights heights = PieceColumnHeights.get(placementSettingsIn, seedPos);
         BlockPos pos = blockInfo.pos;
         BlockPos posForward = pos.relative(Direction.get(AxisDirection.POSITIVE, pathDir));
         BlockPos posBackward = pos.relative(Direction.get(AxisDirection.NEGATIVE, pathDir));
-        int heightForward = level.getHeight(heightmap, posForward.getX(), posForward.getZ()) + offset;
-        int heightBackward = level.getHeight(heightmap, posBackward.getX(), posBackward.getZ()) + offset;
-        int height = level.getHeight(heightmap, pos.getX(), pos.getZ()) + offset;
+        int heightForward = heights.getHeight(level, heightmap, posForward.getX(), posForward.getZ()) + offset;
+        int heightBackward = heights.getHeight(level, heightmap, posBackward.getX(), posBackward.getZ()) + offset;
+        int height = heights.getHeight(level, heightmap, pos.getX(), pos.getZ()) + offset;
         if (heightForward > height && heightBackward > height) {
             return new StructureBlockInfo(new BlockPos(pos.getX(), Math.min(heightForward, heightBackward), pos.getZ()), blockInfo.state, blockInfo.nbt);
         }
-        return baseline.process(level, seedPos, pos2, originalBlockInfo, blockInfo, placementSettingsIn, template);
+        if (level instanceof ServerLevel) {
+            // The vanilla processor swaps worldgen heightmaps for their final versions in a live level
+            return baseline.process(level, seedPos, pos2, originalBlockInfo, blockInfo, placementSettingsIn, template);
+        }
+        // Otherwise it reads the same column we just did
+        return new StructureBlockInfo(new BlockPos(pos.getX(), height + originalBlockInfo.pos.getY(), pos.getZ()), blockInfo.state, blockInfo.nbt);
     }
 
     @Override
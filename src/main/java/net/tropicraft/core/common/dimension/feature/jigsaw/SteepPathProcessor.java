@@ -32,14 +32,16 @@ public class SteepPathProcessor extends PathStructureProcessor {
         // If this is true, we are "bridging" upwards past an air gap, handles overhangs
         int bridgeTo = -1;
         
+        PieceColumnHeights heights = PieceColumnHeights.get(placementSettingsIn, seedPos);
         BlockState ladder = null;
         for (Direction.AxisDirection axisDir : Direction.AxisDirection.values()) {
             Direction dir = Direction.get(axisDir, axis);
             // Detect an overhang by checking if the heightmap between spots differs by >2
-            BlockPos nextHeight = level.getHeightmapPos(Heightmap.Types.WORLD_SURFACE_WG, pos.relative(dir)).below();
-            if (nextHeight.getY() > pos.getY()) {
+            BlockPos next = pos.relative(dir);
+            int nextHeight = heights.getHeight(level, Heightmap.Types.WORLD_SURFACE_WG, next.getX(), next.getZ()) - 1;
+            if (nextHeight > pos.getY()) {
                 ladder = getLadderState(dir);
-                bridgeTo = nextHeight.getY();
+                bridgeTo = nextHeight;
             }
             if (ladder != null) {
                 break;
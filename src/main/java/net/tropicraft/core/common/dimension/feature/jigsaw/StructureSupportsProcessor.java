@@ -41,18 +41,19 @@ public class StructureSupportsProcessor extends CheatyStructureProcessor {
     public StructureBlockInfo process(LevelReader world, BlockPos seedPos, BlockPos pos2, StructureBlockInfo originalInfo, StructureBlockInfo blockInfo, StructurePlaceSettings placement, StructureTemplate template) {
         BlockPos pos = blockInfo.pos;
         if (originalInfo.pos.getY() <= 1 && statesToExtend.contains(blockInfo.state.getBlock().getRegistryName())) {
-            if (!canReplaceLand && !canPassThrough(world, pos)) {
+            PieceColumnHeights heights = PieceColumnHeights.get(placement, seedPos);
+            if (!canReplaceLand && !canPassThrough(world, heights, pos)) {
                 // Delete blocks that would generate inside land
                 return null;
             }
             if (originalInfo.pos.getY() == 0) {
                 // Don't generate blocks underneath solid land
-                if (!canReplaceLand && !canPassThrough(world, pos.above())) {
+                if (!canReplaceLand && !canPassThrough(world, heights, pos.above())) {
                     return null;
                 }
                 BlockPos fencePos = pos.below();
                 // Extend blocks at the bottom of a structure down to the ground
-                while (canPassThrough(world, fencePos)) {
+                while (canPassThrough(world, heights, fencePos)) {
                     BlockState state = blockInfo.state;
                     if (state.hasProperty(BlockStateProperties.WATERLOGGED)) {
                         state = state.setValue(FenceBlock.WATERLOGGED, world.getBlockState(fencePos).getBlock() == Blocks.WATER);
@@ -65,8 +66,8 @@ public class StructureSupportsProcessor extends CheatyStructureProcessor {
         return blockInfo;
     }
 
-    protected boolean canPassThrough(LevelReader world, BlockPos pos) {
-        return isAirOrWater(world, pos) || world.getHeightmapPos(Types.WORLD_SURFACE, pos).getY() < pos.getY();
+    private boolean canPassThrough(LevelReader world, PieceColumnHeights heights, BlockPos pos) {
+        return isAirOrWater(world, pos) || heights.getHeight(world, Types.WORLD_SURFACE, pos.getX(), pos.getZ()) < pos.getY();
     }
 
     @Override
@@ -9,6 +9,7 @@ import net.minecraft.world.level.block.Blocks;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.level.levelgen.feature.FeaturePlaceContext;
 import net.minecraft.world.level.levelgen.feature.configurations.NoneFeatureConfiguration;
+import net.tropicraft.core.common.dimension.feature.TreeOccupancy;
 
 import java.util.Random;
 
@@ -44,7 +45,8 @@ public class CurvedPalmTreeFeature extends PalmTreeFeature {
             return false;
         }
 
-        if (!isBBAvailable(world, pos, height)) {
+        final TreeOccupancy occupancy = new TreeOccupancy(world);
+        if (!isBBAvailable(occupancy, world, pos, height)) {
             return false;
         }
 
@@ -65,8 +67,7 @@ public class CurvedPalmTreeFeature extends PalmTreeFeature {
         // x bb check
         for (int xx = 0; xx < 4; xx++) {
             for (int yy = 0; yy < height; yy++) {
-                final BlockPos posWithDir = getPosWithDir(xx, yy + y, 0);
-                if (!isAir(world, posWithDir)) {
+                if (!occupancy.isAir(getActualXAt(xx, 0), yy + y, getActualZAt(xx, 0))) {
                     return false;
                 }
             }
@@ -76,7 +77,7 @@ public class CurvedPalmTreeFeature extends PalmTreeFeature {
         for (int xx = 0; xx < 9; xx++) {
             for (int zz = 0; zz < 9; zz++) {
                 for (int yy = height - 3; yy < height + 4; yy++) {
-                    if (!isAir(world, getPosWithDir(xx + TOP_OFFSET, yy + y, zz))) {
+                    if (!occupancy.isAir(getActualXAt(xx + TOP_OFFSET, zz), yy + y, getActualZAt(xx + TOP_OFFSET, zz))) {
                         return false;
                     }
                 }
@@ -1,20 +1,30 @@
 package net.tropicraft.core.common.dimension.noise;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
 import java.util.Random;
 
 public class FishyNoise {
 
-	int[] perm = new int[512];
+	// Permutation tables are never written after construction, so instances can be shared across worldgen threads
+	private static final LoadingCache<Long, FishyNoise> INTERNED = CacheBuilder.newBuilder()
+			.maximumSize(256)
+			.build(CacheLoader.from(FishyNoise::new));
+
+	private final int[] perm = new int[512];
 
-	public double[][] grad2d = new double[][] {{1, 0}, {.9239, .3827}, {.707107, 0.707107}, {.3827, .9239},
-			{0, 1}, {-.3827, .9239}, {-.707107, 0.707107},{-.9239, .3827},
-			{-1, 0}, {-.9239, -.3827}, {-.707107, -0.707107}, {-.3827, -.9239},
-			{0, -1}, {.3827, -.9239}, {.707107, -0.707107},{.9239, -.3827}};
+	// Gradient tables are flattened as {x0, y0, x1, y1, ...} so a lookup is a single array access
+	private static final double[] GRAD_2D = new double[] {1, 0, .9239, .3827, .707107, 0.707107, .3827, .9239,
+			0, 1, -.3827, .9239, -.707107, 0.707107, -.9239, .3827,
+			-1, 0, -.9239, -.3827, -.707107, -0.707107, -.3827, -.9239,
+			0, -1, .3827, -.9239, .707107, -0.707107, .9239, -.3827};
 
-	public int[][] grad3d = new int[][] {{1, 1, 0}, {-1, 1, 0}, {1, -1, 0}, {-1, -1, 0},
-			{1, 0, 1}, {-1, 0, 1}, {1, 0, -1}, {-1, 0, -1},
-			{0, 1, 1}, {0, -1, 1}, {0, 1, -1}, {0, -1, -1},
-			{1, 1, 0}, {-1, 1, 0}, {0, -1, 1}, {0, -1, -1}};
+	private static final int[] GRAD_3D = new int[] {1, 1, 0, -1, 1, 0, 1, -1, 0, -1, -1, 0,
+			1, 0, 1, -1, 0, 1, 1, 0, -1, -1, 0, -1,
+			0, 1, 1, 0, -1, 1, 0, 1, -1, 0, -1, -1,
+			1, 1, 0, -1, 1, 0, 0, -1, 1, 0, -1, -1};
 
 	public FishyNoise(long seed)
 	{
@@ -38,6 +48,14 @@ public class FishyNoise {
 		}
 	}
 
+	/**
+	 * Returns a shared instance for the given seed, only building the permutation table the first time it is requested.
+	 */
+	public static FishyNoise forSeed(long seed)
+	{
+		return INTERNED.getUnchecked(seed);
+	}
+
 	private static double lerp(double x, double y, double n)
 	{
 		return x + n * (y - x);
@@ -53,14 +71,16 @@ public class FishyNoise {
 		return n * n * n * (n * (n * 6 - 15) + 10);
 	}
 
-	private static double dot2(double[] grad2, double x, double y)
+	private static double dot2(int hash, double x, double y)
 	{
-		return grad2[0] * x + grad2[1] * y;
+		final int i = (hash & 15) << 1;
+		return GRAD_2D[i] * x + GRAD_2D[i + 1] * y;
 	}
 
-	private static double dot3(int[] grad3, double x, double y, double z)
+	private static double dot3(int hash, double x, double y, double z)
 	{
-		return grad3[0] * x + grad3[1] * y + grad3[2] * z;
+		final int i = (hash & 15) * 3;
+		return GRAD_3D[i] * x + GRAD_3D[i + 1] * y + GRAD_3D[i + 2] * z;
 	}
 
 	public double noise2d(double x, double y)
@@ -75,10 +95,10 @@ public class FishyNoise {
 		final double u = FishyNoise.fade(x);
 		final double v = FishyNoise.fade(y);
 
-		final double grad00 = FishyNoise.dot2(this.grad2d[this.perm[largeX + this.perm[largeY]] & 15], x, y);
-		final double grad01 = FishyNoise.dot2(this.grad2d[this.perm[largeX + this.perm[largeY + 1]] & 15], x, y - 1);
-		final double grad11 = FishyNoise.dot2(this.grad2d[this.perm[largeX + 1 + this.perm[largeY + 1]] & 15], x - 1, y - 1);
-		final double grad10 = FishyNoise.dot2(this.grad2d[this.perm[largeX + 1 + this.perm[largeY]]  & 15], x - 1, y);
+		final double grad00 = FishyNoise.dot2(this.perm[largeX + this.perm[largeY]], x, y);
+		final double grad01 = FishyNoise.dot2(this.perm[largeX + this.perm[largeY + 1]], x, y - 1);
+		final double grad11 = FishyNoise.dot2(this.perm[largeX + 1 + this.perm[largeY + 1]], x - 1, y - 1);
+		final double grad10 = FishyNoise.dot2(this.perm[largeX + 1 + this.perm[largeY]], x - 1, y);
 
 		final double lerpX0 = FishyNoise.lerp(grad00, grad10, u);
 		final double lerpX1 = FishyNoise.lerp(grad01, grad11, u);
@@ -103,14 +123,14 @@ public class FishyNoise {
 		final double v = FishyNoise.fade(y);
 		final double w = FishyNoise.fade(z);
 
-		final double grad000 = FishyNoise.dot3(this.grad3d[this.perm[unitX + this.perm[unitY + this.perm[unitZ]]] & 15], x, y, z);
-		final double grad100 = FishyNoise.dot3(this.grad3d[this.perm[unitX + 1 + this.perm[unitY + this.perm[unitZ]]] & 15], x - 1, y, z);
-		final double grad010 = FishyNoise.dot3(this.grad3d[this.perm[unitX + this.perm[unitY + 1 + this.perm[unitZ]]] & 15], x, y - 1, z);
-		final double grad110 = FishyNoise.dot3(this.grad3d[this.perm[unitX + 1 + this.perm[unitY + 1 + this.perm[unitZ]]] & 15], x - 1, y - 1, z);
-		final double grad001 = FishyNoise.dot3(this.grad3d[this.perm[unitX + this.perm[unitY + this.perm[unitZ + 1]]] & 15], x, y, z - 1);
-		final double grad101 = FishyNoise.dot3(this.grad3d[this.perm[unitX + 1 + this.perm[unitY + this.perm[unitZ + 1]]] & 15], x - 1, y, z - 1);
-		final double grad011 = FishyNoise.dot3(this.grad3d[this.perm[unitX + this.perm[unitY + 1 + this.perm[unitZ + 1]]] & 15], x, y - 1, z - 1);
-		final double grad111 = FishyNoise.dot3(this.grad3d[this.perm[unitX + 1 + this.perm[unitY + 1 + this.perm[unitZ + 1]]] & 15], x - 1, y - 1, z - 1);
+		final double grad000 = FishyNoise.dot3(this.perm[unitX + this.perm[unitY + this.perm[unitZ]]], x, y, z);
+		final double grad100 = FishyNoise.dot3(this.perm[unitX + 1 + this.perm[unitY + this.perm[unitZ]]], x - 1, y, z);
+		final double grad010 = FishyNoise.dot3(this.perm[unitX + this.perm[unitY + 1 + this.perm[unitZ]]], x, y - 1, z);
+		final double grad110 = FishyNoise.dot3(this.perm[unitX + 1 + this.perm[unitY + 1 + this.perm[unitZ]]], x - 1, y - 1, z);
+		final double grad001 = FishyNoise.dot3(this.perm[unitX + this.perm[unitY + this.perm[unitZ + 1]]], x, y, z - 1);
+		final double grad101 = FishyNoise.dot3(this.perm[unitX + 1 + this.perm[unitY + this.perm[unitZ + 1]]], x - 1, y, z - 1);
+		final double grad011 = FishyNoise.dot3(this.perm[unitX + this.perm[unitY + 1 + this.perm[unitZ + 1]]], x, y - 1, z - 1);
+		final double grad111 = FishyNoise.dot3(this.perm[unitX + 1 + this.perm[unitY + 1 + this.perm[unitZ + 1]]], x - 1, y - 1, z - 1);
 
 		return FishyNoise.lerp(
 				FishyNoise.lerp(
@@ -121,4 +141,4 @@ public class FishyNoise {
 				  FishyNoise.lerp(grad011, grad111, u), v), w);
 	}
 
-}
\ No newline at end of file
+}
@@ -20,7 +20,7 @@ public class Billowed extends NoiseModule {
 		this.offsetX = rand.nextDouble() / 2 + 0.01D;
 		this.offsetY = rand.nextDouble() / 2 + 0.01D;
 		this.offsetZ = rand.nextDouble() / 2 + 0.01D;
-		this.noiseGen = new FishyNoise(seed);
+		this.noiseGen = FishyNoise.forSeed(seed);
 	}
 
 	@Override
@@ -19,7 +19,7 @@ public class RidgedMulti extends NoiseModule {
 		offsetX = rand.nextDouble() / 2 + 0.01D;
 		offsetY = rand.nextDouble() / 2 + 0.01D;
 		offsetZ = rand.nextDouble() / 2 + 0.01D;
-		noiseGen = new FishyNoise(seed);
+		noiseGen = FishyNoise.forSeed(seed);
 		for (int i = 0; i < 32; i++) {
 			spectralWeights[i] = Math.pow(frequency, -1.0);
 			frequency *= 2;
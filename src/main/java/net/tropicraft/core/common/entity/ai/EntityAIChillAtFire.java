@@ -1,6 +1,7 @@
 package net.tropicraft.core.common.entity.ai;
 
 import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.entity.EquipmentSlot;
 import net.minecraft.world.entity.ai.goal.Goal;
 import net.minecraft.world.entity.ai.util.DefaultRandomPos;
@@ -8,6 +9,7 @@ import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.level.biome.Biome;
 import net.minecraft.world.phys.Vec3;
 import net.tropicraft.core.common.Util;
+import net.tropicraft.core.common.entity.ai.koa.KoaWorkScheduler;
 import net.tropicraft.core.common.entity.passive.EntityKoaBase;
 import net.tropicraft.core.common.item.TropicraftItems;
 
@@ -22,6 +24,8 @@ public class EntityAIChillAtFire extends Goal
     private int walkingTimeout;
     private int repathPentalty = 0;
 
+    private static final String WORK_PATH = "chill_path";
+
     private int lookUpdateTimer = 0;
     private int randXPos = 0;
     private int randYPos = 0;
@@ -138,29 +142,8 @@ public class EntityAIChillAtFire extends Goal
         if (!isClose) {
             if ((this.entityObj.getNavigation().isDone() || walkingTimeout <= 0) && repathPentalty <= 0) {
 
-                int i = blockposGoal.getX();
-                int j = blockposGoal.getY();
-                int k = blockposGoal.getZ();
-
-                boolean success = false;
-
-                if (this.entityObj.distanceToSqr(Vec3.atCenterOf(blockposGoal)) > 256.0D) {
-                    Vec3 Vector3d = DefaultRandomPos.getPosTowards(this.entityObj, 14, 3, new Vec3((double) i + 0.5D, (double) j, (double) k + 0.5D), (float)Math.PI / 2F);
-
-                    if (Vector3d != null) {
-                        success = this.entityObj.getNavigation().moveTo(Vector3d.x, Vector3d.y, Vector3d.z, 1.0D);
-                    } else {
-                        success = Util.tryMoveToXYZLongDist(this.entityObj, new BlockPos(i, j, k), 1);
-                    }
-                } else {
-                    success = this.entityObj.getNavigation().moveTo((double) i + 0.5D, (double) j, (double) k + 0.5D, 1.0D);
-                }
-
-                if (!success) {
-                    repathPentalty = 40;
-                } else {
-                    walkingTimeout = walkingTimeoutMax;
-                }
+                BlockPos goal = blockposGoal;
+                KoaWorkScheduler.get((ServerLevel) this.entityObj.level).submit(this.entityObj, WORK_PATH, () -> this.moveTowards(goal));
             } else {
                 if (walkingTimeout > 0) {
                     walkingTimeout--;
@@ -179,6 +162,35 @@ public class EntityAIChillAtFire extends Goal
         }
     }
 
+    /**
+     * Paths towards the goal, run through the {@link KoaWorkScheduler} so long path searches are spread out.
+     */
+    private void moveTowards(BlockPos goal) {
+        int i = goal.getX();
+        int j = goal.getY();
+        int k = goal.getZ();
+
+        boolean success = false;
+
+        if (this.entityObj.distanceToSqr(Vec3.atCenterOf(goal)) > 256.0D) {
+            Vec3 Vector3d = DefaultRandomPos.getPosTowards(this.entityObj, 14, 3, new Vec3((double) i + 0.5D, (double) j, (double) k + 0.5D), (float)Math.PI / 2F);
+
+            if (Vector3d != null) {
+                success = this.entityObj.getNavigation().moveTo(Vector3d.x, Vector3d.y, Vector3d.z, 1.0D);
+            } else {
+                success = Util.tryMoveToXYZLongDist(this.entityObj, new BlockPos(i, j, k), 1);
+            }
+        } else {
+            success = this.entityObj.getNavigation().moveTo((double) i + 0.5D, (double) j, (double) k + 0.5D, 1.0D);
+        }
+
+        if (!success) {
+            repathPentalty = 40;
+        } else {
+            walkingTimeout = walkingTimeoutMax;
+        }
+    }
+
     /**
      * Execute a one shot task or start executing a continuous task
      */
@@ -200,6 +212,7 @@ public class EntityAIChillAtFire extends Goal
         super.stop();
         entityObj.setSitting(false);
         walkingTimeout = 0;
+        KoaWorkScheduler.get((ServerLevel) entityObj.level).cancel(entityObj, WORK_PATH);
         /*this.insidePosX = this.doorInfo.getInsideBlockPos().getX();
         this.insidePosZ = this.doorInfo.getInsideBlockPos().getZ();
         this.doorInfo = null;*/
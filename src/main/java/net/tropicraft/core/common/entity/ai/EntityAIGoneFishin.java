@@ -1,6 +1,7 @@
 package net.tropicraft.core.common.entity.ai;
 
 import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.util.Mth;
 import net.minecraft.world.InteractionHand;
 import net.minecraft.world.entity.Entity;
@@ -9,6 +10,8 @@ import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.Items;
 import net.minecraft.world.level.biome.Biome;
 import net.tropicraft.core.common.Util;
+import net.tropicraft.core.common.entity.ai.koa.KoaVillage;
+import net.tropicraft.core.common.entity.ai.koa.KoaWorkScheduler;
 import net.tropicraft.core.common.entity.passive.EntityKoaBase;
 import net.tropicraft.core.common.entity.passive.FishingBobberEntity;
 import net.tropicraft.core.common.item.TropicraftItems;
@@ -20,6 +23,8 @@ import java.util.Random;
 
 public class EntityAIGoneFishin extends Goal {
 
+    private static final String WORK_FIND_WATER = "find_water";
+
     enum FISHING_STATE {
         IDLE,
         WALKING_TO_WATER, //w1 - found water source, walking to it
@@ -37,6 +42,8 @@ public class EntityAIGoneFishin extends Goal {
 
     private BlockPos posLastWaterFound;
     private BlockPos posLastLandFound;
+    // Result of the last scheduled water search, not yet picked up by canUse
+    private BlockPos posWaterSearched;
 
     private int walkingTimeoutMax = 20*30;
     private int fishingTimeoutMax = 20*30;
@@ -94,35 +101,49 @@ public class EntityAIGoneFishin extends Goal {
         BlockPos blockpos = this.entity.blockPosition();
 
         if ((!this.entity.level.isDay() || this.entity.level.isRaining() && this.entity.level.getBiome(blockpos).value().getPrecipitation() == Biome.Precipitation.RAIN)) {
+            posWaterSearched = null;
             return false;
         }
 
-        boolean result = false;//state != FISHING_STATE.IDLE || (entity.ticksExisted % 100 == 0 && findWater() != null);
+        // The water search ran since we last checked, start walking to what it found
+        if (posWaterSearched != null) {
+            posLastWaterFound = posWaterSearched;
+            posWaterSearched = null;
+            entity.lastTimeFished = entity.level.getGameTime() + timeBetweenFishing + timeBetweenFishingRandom;
+            setState(FISHING_STATE.WALKING_TO_WATER);
+            debug("found water, start executing");
+            return true;
+        }
+
+        //state != FISHING_STATE.IDLE || (entity.ticksExisted % 100 == 0 && findWater() != null);
         if (entity.lastTimeFished < entity.level.getGameTime() && entity.level.random.nextInt(3) == 0) {
-            BlockPos posWater = findWater();
+            KoaWorkScheduler.get((ServerLevel) entity.level).submit(entity, WORK_FIND_WATER, this::searchForWater);
+        } else {
+            //debug("waiting on timeout to fish");
+        }
+        return false;
+    }
 
-            //find close if failed
-            if (posWater == null) {
-                posWater = Util.findBlock(entity, 5, Util::isDeepWater);
-            }
+    /**
+     * Looks for water and a path to it, leaving what was found for the next {@link #canUse} to pick up.
+     */
+    private void searchForWater() {
+        BlockPos posWater = findWater();
 
-            if (posWater != null) {
-                if (Util.tryMoveToXYZLongDist(entity, posWater, moveSpeedAmp)) {
-                    posLastWaterFound = posWater;
-                    result = true;
-                    entity.lastTimeFished = entity.level.getGameTime() + timeBetweenFishing + timeBetweenFishingRandom;
-                    setState(FISHING_STATE.WALKING_TO_WATER);
-                    debug("found water, start executing");
-                } else {
-                    debug("failed the path, skip executing");
-                }
+        //find close if failed
+        if (posWater == null) {
+            posWater = Util.findBlock(entity, 5, Util::isDeepWater);
+        }
+
+        if (posWater != null) {
+            if (Util.tryMoveToXYZLongDist(entity, posWater, moveSpeedAmp)) {
+                posWaterSearched = posWater;
             } else {
-                debug("couldnt find water, skip executing");
+                debug("failed the path, skip executing");
             }
         } else {
-            //debug("waiting on timeout to fish");
+            debug("couldnt find water, skip executing");
         }
-        return result;
     }
 
     @Override
@@ -401,10 +422,24 @@ public class EntityAIGoneFishin extends Goal {
     }
 
     private BlockPos findWater() {
+        KoaVillage village = entity.getVillage();
+        if (village != null) {
+            BlockPos spot = village.getShoreline().pickSpot((ServerLevel) entity.level, entity.blockPosition(), rand);
+            if (spot != null) {
+                return spot;
+            }
+        }
         return Util.findBlock(entity, 60, Util::isDeepWater);
     }
 
     private BlockPos findLand() {
+        KoaVillage village = entity.getVillage();
+        if (village != null) {
+            BlockPos bank = village.getShoreline().findBank((ServerLevel) entity.level, entity.blockPosition());
+            if (bank != null) {
+                return bank;
+            }
+        }
         return Util.findBlock(entity, 60, Util::isLand);
     }
 
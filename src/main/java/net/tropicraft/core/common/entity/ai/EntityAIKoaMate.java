@@ -6,6 +6,8 @@ import net.minecraft.sounds.SoundSource;
 import net.minecraft.world.entity.AgeableMob;
 import net.minecraft.world.entity.ai.goal.Goal;
 import net.minecraft.world.level.Level;
+import net.minecraft.world.phys.AABB;
+import net.tropicraft.core.common.entity.ai.koa.KoaVillage;
 import net.tropicraft.core.common.entity.passive.EntityKoaBase;
 
 import java.util.EnumSet;
@@ -57,7 +59,9 @@ public class EntityAIKoaMate extends Goal
         else
         {
             if (this.canTownHandleMoreVillagers() && this.villagerObj.getIsWillingToMate(true)) {
-                List<EntityKoaBase> listEntities = this.world.getEntitiesOfClass(EntityKoaBase.class, this.villagerObj.getBoundingBox().inflate(8.0D, 3.0D, 8.0D));
+                KoaVillage village = this.villagerObj.getVillage();
+                AABB area = this.villagerObj.getBoundingBox().inflate(8.0D, 3.0D, 8.0D);
+                List<EntityKoaBase> listEntities = village != null ? village.getLoadedMembersWithin(area) : this.world.getEntitiesOfClass(EntityKoaBase.class, area);
                 EntityKoaBase clEnt = null;
                 double clDist = 9999;
                 for (EntityKoaBase ent : listEntities) {
@@ -146,6 +150,11 @@ public class EntityAIKoaMate extends Goal
      * @return
      */
     private boolean canTownHandleMoreVillagers() {
+        KoaVillage village = this.villagerObj.getVillage();
+        if (village != null) {
+            return village.getPopulation() < MAX_TOWN_POPULATION;
+        }
+
         double range = 100;
         if (lastTimeCheckedVillagePopulation + TIME_BETWEEN_POPULATION_CHECKS < world.getGameTime()) {
             lastTimeCheckedVillagePopulation = world.getGameTime();
@@ -15,6 +15,7 @@ import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.phys.Vec3;
 import net.minecraftforge.common.util.FakePlayerFactory;
 import net.tropicraft.core.common.Util;
+import net.tropicraft.core.common.entity.ai.koa.KoaWorkScheduler;
 import net.tropicraft.core.common.entity.passive.EntityKoaBase;
 
 import java.util.EnumSet;
@@ -31,6 +32,8 @@ public class EntityAIPartyTime extends Goal
     private int walkingTimeout;
     private int repathPentalty = 0;
 
+    private static final String WORK_PATH = "party_path";
+
     private int lookUpdateTimer = 0;
     private int randXPos = 0;
     private int randYPos = 0;
@@ -247,30 +250,8 @@ public class EntityAIPartyTime extends Goal
             entityObj.setDancing(true);
             if ((this.entityObj.getNavigation().isDone() || walkingTimeout <= 0) && repathPentalty <= 0) {
 
-                int i = blockposGoal.getX();
-                int j = blockposGoal.getY();
-                int k = blockposGoal.getZ();
-
-                boolean success = false;
-
-                if (this.entityObj.distanceToSqr(Vec3.atCenterOf(blockposGoal)) > 256.0) {
-                    Vec3 Vector3d = DefaultRandomPos.getPosTowards(this.entityObj, 14, 3, new Vec3((double) i + 0.5D, (double) j, (double) k + 0.5D), (float)Math.PI / 2F);
-
-                    if (Vector3d != null) {
-                        success = this.entityObj.getNavigation().moveTo(Vector3d.x, Vector3d.y, Vector3d.z, 1.0D);
-                    } else {
-                        success = Util.tryMoveToXYZLongDist(this.entityObj, new BlockPos(i, j, k), 1);
-                        //System.out.println("success? " + success);
-                    }
-                } else {
-                    success = this.entityObj.getNavigation().moveTo((double) i + 0.5D, j, (double) k + 0.5D, 1.0D);
-                }
-
-                if (!success) {
-                    repathPentalty = 40;
-                } else {
-                    walkingTimeout = walkingTimeoutMax;
-                }
+                BlockPos goal = blockposGoal;
+                KoaWorkScheduler.get((ServerLevel) this.entityObj.level).submit(this.entityObj, WORK_PATH, () -> this.moveTowards(goal));
             } else {
                 if (walkingTimeout > 0) {
                     walkingTimeout--;
@@ -289,6 +270,36 @@ public class EntityAIPartyTime extends Goal
         }
     }
 
+    /**
+     * Paths towards the party spot. Queued with the other expensive Koa work, see {@link KoaWorkScheduler}.
+     */
+    private void moveTowards(BlockPos goal) {
+        int i = goal.getX();
+        int j = goal.getY();
+        int k = goal.getZ();
+
+        boolean success = false;
+
+        if (this.entityObj.distanceToSqr(Vec3.atCenterOf(goal)) > 256.0) {
+            Vec3 Vector3d = DefaultRandomPos.getPosTowards(this.entityObj, 14, 3, new Vec3((double) i + 0.5D, (double) j, (double) k + 0.5D), (float)Math.PI / 2F);
+
+            if (Vector3d != null) {
+                success = this.entityObj.getNavigation().moveTo(Vector3d.x, Vector3d.y, Vector3d.z, 1.0D);
+            } else {
+                success = Util.tryMoveToXYZLongDist(this.entityObj, new BlockPos(i, j, k), 1);
+                //System.out.println("success? " + success);
+            }
+        } else {
+            success = this.entityObj.getNavigation().moveTo((double) i + 0.5D, j, (double) k + 0.5D, 1.0D);
+        }
+
+        if (!success) {
+            repathPentalty = 40;
+        } else {
+            walkingTimeout = walkingTimeoutMax;
+        }
+    }
+
     /**
      * Execute a one shot task or start executing a continuous task
      */
@@ -314,6 +325,7 @@ public class EntityAIPartyTime extends Goal
         super.stop();
         entityObj.setSitting(false);
         walkingTimeout = 0;
+        KoaWorkScheduler.get((ServerLevel) entityObj.level).cancel(entityObj, WORK_PATH);
         entityObj.setDancing(false);
         //System.out.println("reset party mode");
         /*this.insidePosX = this.doorInfo.getInsideBlockPos().getX();
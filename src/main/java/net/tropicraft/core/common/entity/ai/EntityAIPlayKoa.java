@@ -3,7 +3,9 @@ package net.tropicraft.core.common.entity.ai;
 import net.minecraft.world.entity.LivingEntity;
 import net.minecraft.world.entity.ai.goal.Goal;
 import net.minecraft.world.entity.ai.util.DefaultRandomPos;
+import net.minecraft.world.phys.AABB;
 import net.minecraft.world.phys.Vec3;
+import net.tropicraft.core.common.entity.ai.koa.KoaVillage;
 import net.tropicraft.core.common.entity.passive.EntityKoaBase;
 
 import java.util.EnumSet;
@@ -39,7 +41,9 @@ public class EntityAIPlayKoa extends Goal
         }
         else
         {
-            List<EntityKoaBase> list = this.villagerObj.level.getEntitiesOfClass(EntityKoaBase.class, this.villagerObj.getBoundingBox().inflate(6.0D, 3.0D, 6.0D));
+            KoaVillage village = this.villagerObj.getVillage();
+            AABB area = this.villagerObj.getBoundingBox().inflate(6.0D, 3.0D, 6.0D);
+            List<EntityKoaBase> list = village != null ? village.getLoadedMembersWithin(area) : this.villagerObj.level.getEntitiesOfClass(EntityKoaBase.class, area);
             double d0 = Double.MAX_VALUE;
 
             for (EntityKoaBase entityvillager : list)
@@ -0,0 +1,373 @@
+package net.tropicraft.core.common.entity.ai;
+
+import it.unimi.dsi.fastutil.longs.Long2LongMap;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongHeapPriorityQueue;
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.tags.FluidTags;
+import net.minecraft.world.entity.Mob;
+import net.minecraft.world.entity.ai.attributes.Attributes;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.levelgen.Heightmap;
+import net.minecraft.world.level.material.FluidState;
+import net.minecraftforge.event.world.BlockEvent;
+import net.minecraftforge.event.world.ChunkEvent;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.tropicraft.Constants;
+import net.tropicraft.core.common.Util;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Plans paths to targets beyond a mob's follow range, handing the vanilla navigator one waypoint at a time.
+ * <p>
+ * The level is viewed as a coarse grid of {@value #CELL_SIZE}x{@value #CELL_SIZE} block cells, each described by
+ * the surface height and whether it is land or water, sampled from the heightmaps of loaded chunks. A route is
+ * planned outwards from the target's cell, so every mob heading to the same place (a village's home chest or
+ * fireplace) shares it. Targets that turn out to be unreachable are skipped for a short while.
+ */
+@Mod.EventBusSubscriber(modid = Constants.MODID)
+public final class LongDistancePathPlanner {
+    private static final int CELL_SHIFT = 2;
+    private static final int CELL_SIZE = 1 << CELL_SHIFT;
+    private static final int CHUNK_CELL_SHIFT = 4 - CELL_SHIFT;
+    private static final int CHUNK_CELL_MASK = (1 << CHUNK_CELL_SHIFT) - 1;
+
+    // Routes cover a square this many cells out from the target
+    private static final int ROUTE_RADIUS = 32;
+    private static final int ROUTE_SIZE = ROUTE_RADIUS * 2 + 1;
+    private static final int MAX_ROUTES = 64;
+    private static final long ROUTE_LIFETIME = 20 * 30;
+    private static final long FAILED_TARGET_COOLDOWN = 20 * 5;
+
+    // Largest surface height difference between neighbouring cells that is still considered walkable
+    private static final int MAX_CLIMB = 4;
+    private static final int LAND_COST = 1;
+    private static final int WATER_COST = 3;
+    private static final int UNREACHED = Integer.MAX_VALUE;
+
+    private static final int BLOCKED = 0;
+    private static final int LAND = 1;
+    private static final int WATER = 2;
+
+    private static final int[] STEP_X = {1, -1, 0, 0};
+    private static final int[] STEP_Z = {0, 0, 1, -1};
+
+    // Only touched from the server thread
+    private static final Map<ResourceKey<Level>, LongDistancePathPlanner> PLANNERS = new HashMap<>();
+
+    // Cells of each sampled chunk, packed as (surface height << 2) | type
+    private final Long2ObjectMap<int[]> chunkCells = new Long2ObjectOpenHashMap<>();
+    private final Long2ObjectMap<Route> routes = new Long2ObjectOpenHashMap<>();
+    private final Long2LongMap failedTargets = new Long2LongOpenHashMap();
+
+    private long nextPurgeTime;
+
+    private static final class Route {
+        private final int minCellX;
+        private final int minCellZ;
+        private final long createdTime;
+        private final int[] costs = new int[ROUTE_SIZE * ROUTE_SIZE];
+
+        private Route(int targetCellX, int targetCellZ, long createdTime) {
+            this.minCellX = targetCellX - ROUTE_RADIUS;
+            this.minCellZ = targetCellZ - ROUTE_RADIUS;
+            this.createdTime = createdTime;
+            Arrays.fill(this.costs, UNREACHED);
+        }
+
+        private boolean contains(int cellX, int cellZ) {
+            int localX = cellX - this.minCellX;
+            int localZ = cellZ - this.minCellZ;
+            return localX >= 0 && localZ >= 0 && localX < ROUTE_SIZE && localZ < ROUTE_SIZE;
+        }
+
+        private int getCost(int cellX, int cellZ) {
+            return this.contains(cellX, cellZ) ? this.costs[(cellZ - this.minCellZ) * ROUTE_SIZE + cellX - this.minCellX] : UNREACHED;
+        }
+
+        private boolean isExpired(long gameTime) {
+            return gameTime - this.createdTime >= ROUTE_LIFETIME;
+        }
+    }
+
+    public static LongDistancePathPlanner get(ServerLevel level) {
+        return PLANNERS.computeIfAbsent(level.dimension(), k -> new LongDistancePathPlanner());
+    }
+
+    @SubscribeEvent
+    public static void onChunkUnload(ChunkEvent.Unload event) {
+        if (event.getWorld() instanceof ServerLevel level) {
+            LongDistancePathPlanner planner = PLANNERS.get(level.dimension());
+            if (planner != null) {
+                planner.chunkCells.remove(event.getChunk().getPos().toLong());
+            }
+        }
+    }
+
+    @SubscribeEvent
+    public static void onBlockChanged(BlockEvent.NeighborNotifyEvent event) {
+        if (event.getWorld() instanceof ServerLevel level) {
+            LongDistancePathPlanner planner = PLANNERS.get(level.dimension());
+            if (planner != null) {
+                // Sampled again the next time a route crosses it
+                BlockPos pos = event.getPos();
+                planner.chunkCells.remove(ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4));
+            }
+        }
+    }
+
+    @SubscribeEvent
+    public static void onWorldUnload(WorldEvent.Unload event) {
+        if (event.getWorld() instanceof ServerLevel level) {
+            PLANNERS.remove(level.dimension());
+        }
+    }
+
+    /**
+     * Starts the mob moving towards the target. Targets within follow range are pathed to directly, anything
+     * further is approached through the next waypoint of the shared route.
+     *
+     * @return true if the navigator accepted a path
+     */
+    public boolean moveTo(ServerLevel level, Mob mob, int x, int y, int z, double speed) {
+        long gameTime = level.getGameTime();
+        if (gameTime >= this.nextPurgeTime) {
+            this.purge(gameTime);
+        }
+
+        long targetKey = BlockPos.asLong(x, y, z);
+        if (this.failedTargets.get(targetKey) > gameTime) {
+            return false;
+        }
+
+        double followRange = mob.getAttributeValue(Attributes.FOLLOW_RANGE);
+        if (Util.getDistance(mob, x, y, z) <= followRange) {
+            boolean success = mob.getNavigation().moveTo(x, y, z, speed);
+            if (!success) {
+                this.failedTargets.put(targetKey, gameTime + FAILED_TARGET_COOLDOWN);
+            }
+            return success;
+        }
+
+        Route route = this.getRoute(level, x >> CELL_SHIFT, z >> CELL_SHIFT, gameTime);
+        int cellX = mob.getBlockX() >> CELL_SHIFT;
+        int cellZ = mob.getBlockZ() >> CELL_SHIFT;
+        int maxSteps = Math.max(1, (int) (followRange * 0.75) >> CELL_SHIFT);
+
+        BlockPos waypoint;
+        if (route.contains(cellX, cellZ)) {
+            waypoint = this.followRoute(level, route, cellX, cellZ, maxSteps);
+            if (waypoint == null) {
+                // The whole area around us was planned and there is no way through. Cells only sample one column
+                // each though, so still try heading straight there before giving up on the target
+                waypoint = this.headTowards(level, mob, x, z, maxSteps);
+                if (waypoint == null) {
+                    this.failedTargets.put(targetKey, gameTime + FAILED_TARGET_COOLDOWN);
+                    return false;
+                }
+            }
+        } else {
+            waypoint = this.headTowards(level, mob, x, z, maxSteps);
+            if (waypoint == null) {
+                return false;
+            }
+        }
+
+        return mob.getNavigation().moveTo(waypoint.getX(), waypoint.getY(), waypoint.getZ(), speed);
+    }
+
+    /**
+     * @return whether the route planned to {@code target} reaches {@code from}, using the same cached route as
+     * mobs walking there
+     */
+    public boolean isReachable(ServerLevel level, BlockPos target, BlockPos from) {
+        Route route = this.getRoute(level, target.getX() >> CELL_SHIFT, target.getZ() >> CELL_SHIFT, level.getGameTime());
+        return route.getCost(from.getX() >> CELL_SHIFT, from.getZ() >> CELL_SHIFT) != UNREACHED;
+    }
+
+    private Route getRoute(ServerLevel level, int targetCellX, int targetCellZ, long gameTime) {
+        long key = ChunkPos.asLong(targetCellX, targetCellZ);
+        Route route = this.routes.get(key);
+        if (route == null || route.isExpired(gameTime)) {
+            if (this.routes.size() >= MAX_ROUTES) {
+                this.purge(gameTime);
+                if (this.routes.size() >= MAX_ROUTES) {
+                    this.routes.clear();
+                }
+            }
+            route = this.planRoute(level, targetCellX, targetCellZ, gameTime);
+            this.routes.put(key, route);
+        }
+        return route;
+    }
+
+    /**
+     * Fills in the cost of reaching the target from every cell around it, cheapest first.
+     * <p>
+     * The target's own cell is sampled at its center column rather than at the target, which can be a roof or a tree
+     * next to it, so steps out of the target cell don't check how far they climb.
+     */
+    private Route planRoute(ServerLevel level, int targetCellX, int targetCellZ, long gameTime) {
+        Route route = new Route(targetCellX, targetCellZ, gameTime);
+        LongHeapPriorityQueue open = new LongHeapPriorityQueue();
+
+        int start = ROUTE_RADIUS * ROUTE_SIZE + ROUTE_RADIUS;
+        route.costs[start] = 0;
+        open.enqueue(start);
+
+        while (!open.isEmpty()) {
+            long entry = open.dequeueLong();
+            int cost = (int) (entry >>> 32);
+            int index = (int) entry;
+            if (cost > route.costs[index]) {
+                continue;
+            }
+
+            int localX = index % ROUTE_SIZE;
+            int localZ = index / ROUTE_SIZE;
+            int height = this.getCell(level, route.minCellX + localX, route.minCellZ + localZ) >> 2;
+
+            for (int i = 0; i < STEP_X.length; i++) {
+                int neighborX = localX + STEP_X[i];
+                int neighborZ = localZ + STEP_Z[i];
+                if (neighborX < 0 || neighborZ < 0 || neighborX >= ROUTE_SIZE || neighborZ >= ROUTE_SIZE) {
+                    continue;
+                }
+
+                int neighbor = this.getCell(level, route.minCellX + neighborX, route.minCellZ + neighborZ);
+                int type = neighbor & 3;
+                if (type == BLOCKED || index != start && Math.abs((neighbor >> 2) - height) > MAX_CLIMB) {
+                    continue;
+                }
+
+                int neighborIndex = neighborZ * ROUTE_SIZE + neighborX;
+                int neighborCost = cost + (type == WATER ? WATER_COST : LAND_COST);
+                if (neighborCost < route.costs[neighborIndex]) {
+                    route.costs[neighborIndex] = neighborCost;
+                    open.enqueue((long) neighborCost << 32 | neighborIndex);
+                }
+            }
+        }
+
+        return route;
+    }
+
+    /**
+     * Walks down the route from the given cell for up to {@code maxSteps} cells.
+     *
+     * @return where to stand at the end of the walk, or null if the target can't be reached from this cell
+     */
+    @Nullable
+    private BlockPos followRoute(ServerLevel level, Route route, int cellX, int cellZ, int maxSteps) {
+        int cost = route.getCost(cellX, cellZ);
+        if (cost == UNREACHED) {
+            return null;
+        }
+
+        for (int step = 0; step < maxSteps && cost > 0; step++) {
+            int bestX = cellX;
+            int bestZ = cellZ;
+            for (int i = 0; i < STEP_X.length; i++) {
+                int neighborCost = route.getCost(cellX + STEP_X[i], cellZ + STEP_Z[i]);
+                if (neighborCost < cost) {
+                    cost = neighborCost;
+                    bestX = cellX + STEP_X[i];
+                    bestZ = cellZ + STEP_Z[i];
+                }
+            }
+            if (bestX == cellX && bestZ == cellZ) {
+                break;
+            }
+            cellX = bestX;
+            cellZ = bestZ;
+        }
+
+        return this.getStandingPos(level, cellX, cellZ);
+    }
+
+    /**
+     * Picks a point straight towards the target, for when we are too far away to be covered by its route.
+     */
+    @Nullable
+    private BlockPos headTowards(ServerLevel level, Mob mob, int x, int z, int maxSteps) {
+        double deltaX = x + 0.5 - mob.getX();
+        double deltaZ = z + 0.5 - mob.getZ();
+        double scale = maxSteps * CELL_SIZE / Math.sqrt(deltaX * deltaX + deltaZ * deltaZ);
+        int cellX = (int) Math.floor(mob.getX() + deltaX * scale) >> CELL_SHIFT;
+        int cellZ = (int) Math.floor(mob.getZ() + deltaZ * scale) >> CELL_SHIFT;
+        if ((this.getCell(level, cellX, cellZ) & 3) == BLOCKED) {
+            return null;
+        }
+        return this.getStandingPos(level, cellX, cellZ);
+    }
+
+    private BlockPos getStandingPos(ServerLevel level, int cellX, int cellZ) {
+        int height = this.getCell(level, cellX, cellZ) >> 2;
+        return new BlockPos((cellX << CELL_SHIFT) + CELL_SIZE / 2, height + 1, (cellZ << CELL_SHIFT) + CELL_SIZE / 2);
+    }
+
+    private int getCell(ServerLevel level, int cellX, int cellZ) {
+        int chunkX = cellX >> CHUNK_CELL_SHIFT;
+        int chunkZ = cellZ >> CHUNK_CELL_SHIFT;
+        long chunkKey = ChunkPos.asLong(chunkX, chunkZ);
+        int[] cells = this.chunkCells.get(chunkKey);
+        if (cells == null) {
+            LevelChunk chunk = level.getChunkSource().getChunkNow(chunkX, chunkZ);
+            if (chunk == null) {
+                return BLOCKED;
+            }
+            cells = sampleChunk(chunk);
+            this.chunkCells.put(chunkKey, cells);
+        }
+        return cells[(cellZ & CHUNK_CELL_MASK) << CHUNK_CELL_SHIFT | cellX & CHUNK_CELL_MASK];
+    }
+
+    private static int[] sampleChunk(LevelChunk chunk) {
+        int cellsPerSide = 1 << CHUNK_CELL_SHIFT;
+        int[] cells = new int[cellsPerSide * cellsPerSide];
+        ChunkPos chunkPos = chunk.getPos();
+        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+
+        for (int cellZ = 0; cellZ < cellsPerSide; cellZ++) {
+            for (int cellX = 0; cellX < cellsPerSide; cellX++) {
+                int x = (cellX << CELL_SHIFT) + CELL_SIZE / 2;
+                int z = (cellZ << CELL_SHIFT) + CELL_SIZE / 2;
+                int height = chunk.getHeight(Heightmap.Types.MOTION_BLOCKING_NO_LEAVES, x, z);
+
+                int type;
+                if (height < chunk.getMinBuildHeight()) {
+                    type = BLOCKED;
+                } else {
+                    FluidState fluid = chunk.getFluidState(pos.set(chunkPos.getBlockX(x), height, chunkPos.getBlockZ(z)));
+                    if (fluid.isEmpty()) {
+                        type = LAND;
+                    } else {
+                        type = fluid.is(FluidTags.WATER) ? WATER : BLOCKED;
+                    }
+                }
+
+                cells[cellZ << CHUNK_CELL_SHIFT | cellX] = height << 2 | type;
+            }
+        }
+
+        return cells;
+    }
+
+    private void purge(long gameTime) {
+        this.routes.values().removeIf(route -> route.isExpired(gameTime));
+        this.failedTargets.long2LongEntrySet().removeIf(entry -> entry.getLongValue() <= gameTime);
+        this.nextPurgeTime = gameTime + ROUTE_LIFETIME;
+    }
+}
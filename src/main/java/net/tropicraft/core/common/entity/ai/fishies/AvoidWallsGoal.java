@@ -1,8 +1,9 @@
 package net.tropicraft.core.common.entity.ai.fishies;
 
 import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.util.Mth;
 import net.minecraft.world.entity.ai.goal.Goal;
-import net.minecraft.world.phys.Vec3;
 import net.tropicraft.core.common.entity.underdasea.TropicraftFishEntity;
 
 import java.util.EnumSet;
@@ -26,16 +27,16 @@ public class AvoidWallsGoal extends Goal {
     @Override
     public void tick() {
         super.tick();
-        // Wall correction
-        Vec3 angle = entity.getHeading();
-        double frontDist = 1 + rand.nextInt(4);
-        
-        Vec3 diff = new Vec3(entity.getX() + (angle.x * frontDist), entity.getY() + angle.y, entity.getZ() + (angle.z * frontDist));
+        SwimmableVolume volume = SwimmableVolume.get((ServerLevel) entity.level);
+        BlockPos pos = entity.blockPosition();
 
-        BlockPos bp = new BlockPos((int) diff.x, (int) entity.getY(), (int) diff.z);
+        // Wall correction, looking 1 to 4 blocks ahead in turn
+        double frontDist = 1 + (entity.tickCount + entity.getId()) % 4;
+        int frontX = Mth.floor(entity.getX() + entity.getHeadingX() * frontDist);
+        int frontZ = Mth.floor(entity.getZ() + entity.getHeadingZ() * frontDist);
 
-        if (!entity.level.getBlockState(bp).getMaterial().isLiquid() && !entity.isMovingAwayFromWall) {
-            entity.setRandomTargetHeadingForce(32);
+        if (!volume.isSwimmable((ServerLevel) entity.level, frontX, pos.getY(), frontZ) && !entity.isMovingAwayFromWall) {
+            turnAway();
             entity.isMovingAwayFromWall = true;
         }
         
@@ -43,34 +44,38 @@ public class AvoidWallsGoal extends Goal {
             entity.isMovingAwayFromWall = false;
         
         
-        if (entity.targetVector != null && entity.isMovingAwayFromWall) {
-            bp = new BlockPos((int) entity.targetVector.x, (int) entity.targetVector.y, (int) entity.targetVector.z);
-
-            if(entity.blockPosition().equals(bp) && entity.tickCount % 80 == 0) {
+        if (entity.hasTargetVector && entity.isMovingAwayFromWall) {
+            if(pos.getX() == entity.targetX && pos.getY() == entity.targetY && pos.getZ() == entity.targetZ && entity.tickCount % 80 == 0) {
                 entity.isMovingAwayFromWall = false;
             }
         }
         
         
         // Near surface check
-        bp = entity.blockPosition();
-        if (!entity.level.getBlockState(bp).getMaterial().isLiquid()) {
+        if (!volume.isSwimmable((ServerLevel) entity.level, pos)) {
             if (entity.swimPitch > 0f) {
                 entity.isPanicking = false;
-                entity.setRandomTargetHeadingForce(32);
+                turnAway();
             }
         }
 
-        bp = new BlockPos(entity.blockPosition().below(2));
-
         // Hitting bottom check
-        if (!entity.level.getBlockState(bp).getMaterial().isLiquid()) {
+        if (!volume.isSwimmable((ServerLevel) entity.level, pos.getX(), pos.getY() - 2, pos.getZ())) {
             if (entity.swimPitch < 0f) {
                 entity.swimPitch+= 2f;
             }
         }
     }
 
+    private void turnAway() {
+        // Schools pick one new direction for everyone rather than each fish probing for its own
+        if (entity.isSchooling && entity.school != null) {
+            entity.school.reportObstacle();
+        } else {
+            entity.setRandomTargetHeadingForce(32);
+        }
+    }
+
     /**
      * Returns whether an in-progress EntityAIBase should continue executing
      */
@@ -0,0 +1,284 @@
+package net.tropicraft.core.common.entity.ai.fishies;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.util.Mth;
+import net.minecraft.world.level.Level;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.tropicraft.Constants;
+import net.tropicraft.core.common.entity.underdasea.TropicraftFishEntity;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Steers a school of fish of the same type together, boids style.
+ * <p>
+ * Once per tick, before entities tick, every school gathers its members' positions and headings into flat arrays
+ * and works out a heading for each member from the school's alignment and centre, separation from close
+ * neighbours and a wander direction shared by the whole school. Only the wander direction is checked against the
+ * world, a few blocks ahead of the school's centre, so the cost per fish stays flat however large the school is.
+ * Members that are {@link TropicraftFishEntity#isSchooling schooling} are handed their heading; the rest still
+ * count towards the school but steer themselves.
+ */
+@Mod.EventBusSubscriber(modid = Constants.MODID)
+public final class FishSchool {
+    private static final int MAX_SIZE = 24;
+    private static final double JOIN_RANGE = 8.0;
+    private static final double LEAVE_RANGE = 16.0;
+    private static final double SEPARATION_RANGE = 1.5;
+    private static final double LOOK_AHEAD = 4.0;
+    private static final int MERGE_INTERVAL = 20;
+    private static final int OBSTACLE_CHECK_INTERVAL = 10;
+
+    private static final double ALIGNMENT_WEIGHT = 1.0;
+    private static final double COHESION_WEIGHT = 0.6;
+    private static final double SEPARATION_WEIGHT = 1.5;
+    private static final double WANDER_WEIGHT = 0.8;
+
+    // Only touched from the server thread
+    private static final Map<ResourceKey<Level>, List<FishSchool>> SCHOOLS = new HashMap<>();
+
+    private final Class<? extends TropicraftFishEntity> type;
+    private final List<TropicraftFishEntity> members = new ArrayList<>();
+
+    // Scratch space for the steering pass, indexed like members
+    private final double[] x = new double[MAX_SIZE];
+    private final double[] y = new double[MAX_SIZE];
+    private final double[] z = new double[MAX_SIZE];
+
+    private double centerX;
+    private double centerY;
+    private double centerZ;
+
+    private double wanderX;
+    private double wanderY;
+    private double wanderZ = 1.0;
+    private long nextWanderTime;
+    private boolean obstacleReported;
+
+    private final BlockPos.MutableBlockPos probePos = new BlockPos.MutableBlockPos();
+
+    private FishSchool(TropicraftFishEntity founder) {
+        this.type = founder.getClass();
+        this.centerX = founder.getX();
+        this.centerY = founder.getY();
+        this.centerZ = founder.getZ();
+        this.add(founder);
+    }
+
+    /**
+     * Puts the fish in the closest school of its type with room for it, or starts a new one.
+     */
+    public static void join(ServerLevel level, TropicraftFishEntity fish) {
+        List<FishSchool> schools = SCHOOLS.computeIfAbsent(level.dimension(), k -> new ArrayList<>());
+
+        FishSchool closest = null;
+        double closestDistance = JOIN_RANGE * JOIN_RANGE;
+        for (FishSchool school : schools) {
+            if (school.type != fish.getClass() || school.members.size() >= MAX_SIZE) {
+                continue;
+            }
+            double distance = fish.distanceToSqr(school.centerX, school.centerY, school.centerZ);
+            if (distance <= closestDistance) {
+                closest = school;
+                closestDistance = distance;
+            }
+        }
+
+        if (closest != null) {
+            closest.add(fish);
+        } else {
+            schools.add(new FishSchool(fish));
+        }
+    }
+
+    @SubscribeEvent
+    public static void onWorldTick(TickEvent.WorldTickEvent event) {
+        if (event.phase != TickEvent.Phase.START || !(event.world instanceof ServerLevel level)) {
+            return;
+        }
+
+        List<FishSchool> schools = SCHOOLS.get(level.dimension());
+        if (schools == null) {
+            return;
+        }
+
+        long gameTime = level.getGameTime();
+        if (gameTime % MERGE_INTERVAL == 0) {
+            mergeSmallSchools(schools);
+        }
+        schools.removeIf(school -> !school.steer(level, gameTime));
+    }
+
+    @SubscribeEvent
+    public static void onWorldUnload(WorldEvent.Unload event) {
+        if (event.getWorld() instanceof ServerLevel level) {
+            SCHOOLS.remove(level.dimension());
+        }
+    }
+
+    private static void mergeSmallSchools(List<FishSchool> schools) {
+        for (FishSchool school : schools) {
+            if (school.members.isEmpty() || school.members.size() > MAX_SIZE / 2) {
+                continue;
+            }
+            for (FishSchool other : schools) {
+                if (other == school || other.type != school.type || other.members.size() + school.members.size() > MAX_SIZE) {
+                    continue;
+                }
+                double deltaX = other.centerX - school.centerX;
+                double deltaY = other.centerY - school.centerY;
+                double deltaZ = other.centerZ - school.centerZ;
+                if (deltaX * deltaX + deltaY * deltaY + deltaZ * deltaZ <= JOIN_RANGE * JOIN_RANGE) {
+                    for (TropicraftFishEntity member : school.members) {
+                        other.add(member);
+                    }
+                    // Left empty, so it gets dropped on the next steering pass
+                    school.members.clear();
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Asks the school to pick a new direction, for members that are about to swim into something.
+     */
+    public void reportObstacle() {
+        this.obstacleReported = true;
+    }
+
+    public int size() {
+        return this.members.size();
+    }
+
+    private void add(TropicraftFishEntity fish) {
+        this.members.add(fish);
+        fish.school = this;
+    }
+
+    /**
+     * @return false once the school has no members left
+     */
+    private boolean steer(ServerLevel level, long gameTime) {
+        this.members.removeIf(member -> {
+            boolean strayed = member.distanceToSqr(this.centerX, this.centerY, this.centerZ) > LEAVE_RANGE * LEAVE_RANGE;
+            if (member.isRemoved() || !member.isInWater() || strayed && this.members.size() > 1) {
+                member.school = null;
+                return true;
+            }
+            return false;
+        });
+
+        int count = this.members.size();
+        if (count == 0) {
+            return false;
+        }
+
+        double sumX = 0.0, sumY = 0.0, sumZ = 0.0;
+        double alignX = 0.0, alignY = 0.0, alignZ = 0.0;
+        for (int i = 0; i < count; i++) {
+            TropicraftFishEntity member = this.members.get(i);
+            this.x[i] = member.getX();
+            this.y[i] = member.getY();
+            this.z[i] = member.getZ();
+            sumX += this.x[i];
+            sumY += this.y[i];
+            sumZ += this.z[i];
+
+            alignX += member.getHeadingX();
+            alignY += member.getHeadingY();
+            alignZ += member.getHeadingZ();
+        }
+
+        this.centerX = sumX / count;
+        this.centerY = sumY / count;
+        this.centerZ = sumZ / count;
+
+        double alignLength = Math.sqrt(alignX * alignX + alignY * alignY + alignZ * alignZ);
+        if (alignLength > 1.0E-6) {
+            alignX /= alignLength;
+            alignY /= alignLength;
+            alignZ /= alignLength;
+        }
+
+        if (this.obstacleReported || gameTime >= this.nextWanderTime || gameTime % OBSTACLE_CHECK_INTERVAL == 0 && !this.isWanderClear(level)) {
+            this.pickWanderDirection(level, level.random);
+            this.nextWanderTime = gameTime + 100 + level.random.nextInt(100);
+            this.obstacleReported = false;
+        }
+
+        for (int i = 0; i < count; i++) {
+            TropicraftFishEntity member = this.members.get(i);
+            if (!member.isSchooling) {
+                continue;
+            }
+
+            double separationX = 0.0, separationY = 0.0, separationZ = 0.0;
+            for (int j = 0; j < count; j++) {
+                double deltaX = this.x[i] - this.x[j];
+                double deltaY = this.y[i] - this.y[j];
+                double deltaZ = this.z[i] - this.z[j];
+                double distance = deltaX * deltaX + deltaY * deltaY + deltaZ * deltaZ;
+                if (j != i && distance < SEPARATION_RANGE * SEPARATION_RANGE && distance > 1.0E-6) {
+                    separationX += deltaX / distance;
+                    separationY += deltaY / distance;
+                    separationZ += deltaZ / distance;
+                }
+            }
+
+            double cohesionX = this.centerX - this.x[i];
+            double cohesionY = this.centerY - this.y[i];
+            double cohesionZ = this.centerZ - this.z[i];
+            double cohesionLength = Math.sqrt(cohesionX * cohesionX + cohesionY * cohesionY + cohesionZ * cohesionZ);
+            if (cohesionLength > 1.0) {
+                cohesionX /= cohesionLength;
+                cohesionY /= cohesionLength;
+                cohesionZ /= cohesionLength;
+            }
+
+            double headingX = alignX * ALIGNMENT_WEIGHT + cohesionX * COHESION_WEIGHT + separationX * SEPARATION_WEIGHT + this.wanderX * WANDER_WEIGHT;
+            double headingY = alignY * ALIGNMENT_WEIGHT + cohesionY * COHESION_WEIGHT + separationY * SEPARATION_WEIGHT + this.wanderY * WANDER_WEIGHT;
+            double headingZ = alignZ * ALIGNMENT_WEIGHT + cohesionZ * COHESION_WEIGHT + separationZ * SEPARATION_WEIGHT + this.wanderZ * WANDER_WEIGHT;
+
+            float yaw = (float) (Mth.atan2(headingZ, headingX) * Mth.RAD_TO_DEG) - 90.0F;
+            float pitch = (float) -(Mth.atan2(headingY, Math.sqrt(headingX * headingX + headingZ * headingZ)) * Mth.RAD_TO_DEG);
+            member.setTargetHeading(yaw, pitch);
+        }
+
+        return true;
+    }
+
+    private boolean isWanderClear(ServerLevel level) {
+        this.probePos.set(this.centerX + this.wanderX * LOOK_AHEAD, this.centerY + this.wanderY * LOOK_AHEAD, this.centerZ + this.wanderZ * LOOK_AHEAD);
+        return SwimmableVolume.get(level).isSwimmable(level, this.probePos);
+    }
+
+    private void pickWanderDirection(ServerLevel level, Random random) {
+        double previousX = this.wanderX;
+        double previousZ = this.wanderZ;
+        for (int attempt = 0; attempt < 4; attempt++) {
+            float yaw = random.nextFloat() * Mth.TWO_PI;
+            float pitch = (random.nextFloat() - 0.5F) * 0.5F;
+            this.wanderX = Mth.sin(yaw) * Mth.cos(pitch);
+            this.wanderY = Mth.sin(pitch);
+            this.wanderZ = Mth.cos(yaw) * Mth.cos(pitch);
+            if (this.isWanderClear(level)) {
+                return;
+            }
+        }
+
+        // Boxed in, head back the way we came
+        this.wanderX = -previousX;
+        this.wanderY = 0.0;
+        this.wanderZ = -previousZ;
+    }
+}
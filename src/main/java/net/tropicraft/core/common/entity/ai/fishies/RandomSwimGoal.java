@@ -33,6 +33,6 @@ public class RandomSwimGoal extends Goal {
 
     @Override
     public boolean canContinueToUse() {
-        return entity.targetVector == null;
+        return !entity.hasTargetVector;
     }
 }
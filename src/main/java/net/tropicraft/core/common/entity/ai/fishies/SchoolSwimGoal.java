@@ -0,0 +1,49 @@
+package net.tropicraft.core.common.entity.ai.fishies;
+
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.ai.goal.Goal;
+import net.tropicraft.core.common.entity.underdasea.TropicraftFishEntity;
+
+import java.util.EnumSet;
+
+/**
+ * Swims with the rest of the fish's {@link FishSchool}, which hands out headings each tick. Meant to sit in front
+ * of {@link RandomSwimGoal} so the two don't fight over the heading.
+ */
+public class SchoolSwimGoal extends Goal {
+    // How often a fish without a school looks for one
+    private static final int JOIN_INTERVAL = 20;
+
+    public TropicraftFishEntity entity;
+
+    public SchoolSwimGoal(EnumSet<Flag> flags, TropicraftFishEntity entityObjIn) {
+        this.entity = entityObjIn;
+        setFlags(flags);
+    }
+
+    @Override
+    public boolean canUse() {
+        if (!entity.isInWater()) {
+            return false;
+        }
+        if (entity.school == null && (entity.tickCount + entity.getId()) % JOIN_INTERVAL == 0) {
+            FishSchool.join((ServerLevel) entity.level, entity);
+        }
+        return entity.school != null;
+    }
+
+    @Override
+    public void start() {
+        entity.isSchooling = true;
+    }
+
+    @Override
+    public void stop() {
+        entity.isSchooling = false;
+    }
+
+    @Override
+    public boolean canContinueToUse() {
+        return entity.isInWater() && entity.school != null;
+    }
+}
@@ -1,12 +1,11 @@
 package net.tropicraft.core.common.entity.ai.fishies;
 
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.ai.goal.Goal;
 import net.tropicraft.core.common.entity.underdasea.TropicraftFishEntity;
 
-import java.util.Arrays;
 import java.util.EnumSet;
-import java.util.List;
 import java.util.Random;
 
 public class SwimToAvoidEntityGoal extends Goal {
@@ -15,12 +14,14 @@ public class SwimToAvoidEntityGoal extends Goal {
     public Random rand;
     public Class<? extends Entity>[] entityClassToAvoid;
     public double distanceToAvoid;
+    private final long typesToAvoid;
 
     public SwimToAvoidEntityGoal(EnumSet<Flag> flags, TropicraftFishEntity entityObjIn, double dist, Class<? extends Entity>[] classes) {
         this.entity = entityObjIn;
         rand = this.entity.getRandom();
         entityClassToAvoid = classes;
         distanceToAvoid = dist;
+        typesToAvoid = UnderwaterEntityIndex.typeMask(classes);
         setFlags(flags);
     }
 
@@ -33,14 +34,10 @@ public class SwimToAvoidEntityGoal extends Goal {
     public void tick() {
         super.tick();
         
-        List<Entity> ents = entity.level.getEntities(entity, entity.getBoundingBox().inflate(this.distanceToAvoid));
-        List<Class<? extends Entity>> classes = Arrays.asList(entityClassToAvoid);
-        for (int i = 0; i < ents.size(); i++) {
-            if (classes.contains(ents.get(i).getClass())) {
-                entity.fleeEntity(ents.get(i));
-                break;
-            }
-        }            
+        Entity threat = UnderwaterEntityIndex.get((ServerLevel) entity.level).findNearest(entity, entity.getBoundingBox().inflate(this.distanceToAvoid), typesToAvoid);
+        if (threat != null) {
+            entity.fleeEntity(threat);
+        }
     }
 
     /**
@@ -0,0 +1,126 @@
+package net.tropicraft.core.common.entity.ai.fishies;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.material.Material;
+import net.minecraftforge.event.world.BlockEvent;
+import net.minecraftforge.event.world.ChunkEvent;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.tropicraft.Constants;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * One bit per block telling fish whether they can swim there: liquid that isn't solid.
+ * <p>
+ * Sections are only looked at once a fish asks about them, and are dropped again when a block in them changes or
+ * their chunk unloads. Sections with no liquid at all share a single empty bitmap.
+ */
+@Mod.EventBusSubscriber(modid = Constants.MODID)
+public final class SwimmableVolume {
+    private static final long[] EMPTY = new long[16 * 16 * 16 / Long.SIZE];
+
+    // Only touched from the server thread
+    private static final Map<ResourceKey<Level>, SwimmableVolume> VOLUMES = new HashMap<>();
+
+    private final Long2ObjectMap<long[]> sections = new Long2ObjectOpenHashMap<>();
+
+    public static SwimmableVolume get(ServerLevel level) {
+        return VOLUMES.computeIfAbsent(level.dimension(), k -> new SwimmableVolume());
+    }
+
+    @SubscribeEvent
+    public static void onBlockChanged(BlockEvent.NeighborNotifyEvent event) {
+        if (event.getWorld() instanceof ServerLevel level) {
+            SwimmableVolume volume = VOLUMES.get(level.dimension());
+            if (volume != null) {
+                volume.sections.remove(SectionPos.asLong(event.getPos()));
+            }
+        }
+    }
+
+    @SubscribeEvent
+    public static void onChunkUnload(ChunkEvent.Unload event) {
+        if (event.getWorld() instanceof ServerLevel level) {
+            SwimmableVolume volume = VOLUMES.get(level.dimension());
+            if (volume != null) {
+                ChunkPos chunkPos = event.getChunk().getPos();
+                for (int sectionY = event.getChunk().getMinSection(); sectionY < event.getChunk().getMaxSection(); sectionY++) {
+                    volume.sections.remove(SectionPos.asLong(chunkPos.x, sectionY, chunkPos.z));
+                }
+            }
+        }
+    }
+
+    @SubscribeEvent
+    public static void onWorldUnload(WorldEvent.Unload event) {
+        if (event.getWorld() instanceof ServerLevel level) {
+            VOLUMES.remove(level.dimension());
+        }
+    }
+
+    public static boolean isSwimmable(BlockState state) {
+        Material material = state.getMaterial();
+        return material.isLiquid() && !material.isSolid();
+    }
+
+    /**
+     * @return whether a fish can swim at the given block, false if it isn't loaded
+     */
+    public boolean isSwimmable(ServerLevel level, int x, int y, int z) {
+        int sectionY = SectionPos.blockToSectionCoord(y);
+        long sectionKey = SectionPos.asLong(SectionPos.blockToSectionCoord(x), sectionY, SectionPos.blockToSectionCoord(z));
+        long[] bits = this.sections.get(sectionKey);
+        if (bits == null) {
+            LevelChunk chunk = level.getChunkSource().getChunkNow(SectionPos.blockToSectionCoord(x), SectionPos.blockToSectionCoord(z));
+            if (chunk == null) {
+                return false;
+            }
+            bits = build(chunk, sectionY);
+            this.sections.put(sectionKey, bits);
+        }
+
+        int index = (y & 15) << 8 | (z & 15) << 4 | (x & 15);
+        return (bits[index >> 6] & 1L << index) != 0;
+    }
+
+    public boolean isSwimmable(ServerLevel level, BlockPos pos) {
+        return this.isSwimmable(level, pos.getX(), pos.getY(), pos.getZ());
+    }
+
+    private static long[] build(LevelChunk chunk, int sectionY) {
+        if (sectionY < chunk.getMinSection() || sectionY >= chunk.getMaxSection()) {
+            return EMPTY;
+        }
+
+        LevelChunkSection section = chunk.getSection(chunk.getSectionIndexFromSectionY(sectionY));
+        if (section.hasOnlyAir() || !section.maybeHas(SwimmableVolume::isSwimmable)) {
+            return EMPTY;
+        }
+
+        long[] bits = new long[EMPTY.length];
+        for (int y = 0; y < 16; y++) {
+            for (int z = 0; z < 16; z++) {
+                for (int x = 0; x < 16; x++) {
+                    if (isSwimmable(section.getBlockState(x, y, z))) {
+                        int index = y << 8 | z << 4 | x;
+                        bits[index >> 6] |= 1L << index;
+                    }
+                }
+            }
+        }
+        return bits;
+    }
+}
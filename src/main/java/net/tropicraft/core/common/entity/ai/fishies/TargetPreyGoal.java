@@ -1,5 +1,6 @@
 package net.tropicraft.core.common.entity.ai.fishies;
 
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.damagesource.DamageSource;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.LivingEntity;
@@ -33,34 +34,19 @@ public class TargetPreyGoal extends Goal {
         
         // Target selection
         AABB entityBB = entity.getBoundingBox();
-        if (entity.tickCount % 80 == 0 && entity.aggressTarget == null || entity.getCommandSenderWorld().getEntity(entity.aggressTarget.getId()) == null) {
-                List<Entity> list = entity.level.getEntities(entity, entityBB.inflate(20D, 20D, 20D).move(0.0D, -8.0D, 0.0D), e -> e.isAlive());
-                if(list.size() > 0) {
-                    Entity ent = list.get(rand.nextInt(list.size()));
-                    boolean skip = false;
-                    if(ent.equals(entity)) skip = true;    
-                    if(ent.getClass().getName().equals(entity.getClass().getName())) skip = true;    
+        boolean lostTarget = entity.aggressTarget != null && entity.getCommandSenderWorld().getEntity(entity.aggressTarget.getId()) == null;
+        if (entity.tickCount % 80 == 0 && entity.aggressTarget == null || lostTarget) {
+                // Cheap checks first, so only the chosen prey needs a line of sight raycast
+                List<LivingEntity> list = UnderwaterEntityIndex.get((ServerLevel) entity.level).getEntities(entity, entityBB.inflate(20D, 20D, 20D).move(0.0D, -8.0D, 0.0D), UnderwaterEntityIndex.ANY_TYPE);
+                list.removeIf(ent -> ent.getClass() == entity.getClass() || !ent.isInWater());
 //                    if(entity instanceof IPredatorDiet) {
 //                        Class[] prey = ((IPredatorDiet)entity).getPreyClasses();
-//                        boolean contains = false;
-//                        for(int i =0; i < prey.length; i++) {
-//                            if(prey[i].getName().equals(ent.getClass().getName())) {
-//                                contains = true;
-//                            }
-//                        }
-//                        if(!contains) {
-//                            skip = true;
-//                        }
+//                        list.removeIf(ent -> !Arrays.asList(prey).contains(ent.getClass()));
 //                    }
-                    if(!ent.isInWater()) skip = true;                
-                    if(!entity.hasLineOfSight(ent)) skip = true;
-                    
-                    if(!skip) {
-                        if (ent instanceof LivingEntity){
-                            if (ent.isInWater()) {
-                                entity.aggressTarget = ent;
-                            }
-                        }
+                if(list.size() > 0) {
+                    LivingEntity ent = list.get(rand.nextInt(list.size()));
+                    if(entity.hasLineOfSight(ent)) {
+                        entity.aggressTarget = ent;
                     }
                 }
             }
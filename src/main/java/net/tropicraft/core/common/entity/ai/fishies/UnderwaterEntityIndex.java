@@ -0,0 +1,153 @@
+package net.tropicraft.core.common.entity.ai.fishies;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2LongMap;
+import it.unimi.dsi.fastutil.objects.Reference2LongOpenHashMap;
+import net.minecraft.core.SectionPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.util.Mth;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.phys.AABB;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.tropicraft.Constants;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Spatial hash of the living entities in a level, for fish goals that look for predators and prey every tick.
+ * <p>
+ * The hash is rebuilt at most once per tick, the first time it is queried, so every fish in the level shares a
+ * single pass over the level's entities. Entity types are matched through bitmasks built once per set of classes
+ * by {@link #typeMask}, instead of searching a class array for every neighbour.
+ */
+@Mod.EventBusSubscriber(modid = Constants.MODID)
+public final class UnderwaterEntityIndex {
+    /**
+     * Matches any entity, whether or not its class was given to {@link #typeMask}.
+     */
+    public static final long ANY_TYPE = -1L;
+
+    private static final int CELL_SHIFT = 3;
+
+    // Each class that has been asked about gets its own bit. Only touched from the server thread
+    private static final Reference2LongMap<Class<?>> TYPE_BITS = new Reference2LongOpenHashMap<>();
+
+    private static final Map<ResourceKey<Level>, UnderwaterEntityIndex> INDICES = new HashMap<>();
+
+    private final Long2ObjectMap<List<LivingEntity>> cells = new Long2ObjectOpenHashMap<>();
+    private long builtTime = Long.MIN_VALUE;
+
+    public static UnderwaterEntityIndex get(ServerLevel level) {
+        UnderwaterEntityIndex index = INDICES.computeIfAbsent(level.dimension(), k -> new UnderwaterEntityIndex());
+        index.ensureBuilt(level);
+        return index;
+    }
+
+    @SubscribeEvent
+    public static void onWorldUnload(WorldEvent.Unload event) {
+        if (event.getWorld() instanceof ServerLevel level) {
+            INDICES.remove(level.dimension());
+        }
+    }
+
+    /**
+     * Builds the mask matching entities of exactly the given classes, like the class lists fish goals are given.
+     */
+    @SafeVarargs
+    public static long typeMask(Class<? extends Entity>... classes) {
+        long mask = 0;
+        for (Class<? extends Entity> type : classes) {
+            long bit = TYPE_BITS.getLong(type);
+            if (bit == 0) {
+                if (TYPE_BITS.size() >= Long.SIZE) {
+                    throw new IllegalStateException("Too many entity classes used by fish goals, cannot assign a bit to " + type.getName());
+                }
+                bit = 1L << TYPE_BITS.size();
+                TYPE_BITS.put(type, bit);
+            }
+            mask |= bit;
+        }
+        return mask;
+    }
+
+    private static boolean matches(Entity entity, long typeMask) {
+        return typeMask == ANY_TYPE || (TYPE_BITS.getLong(entity.getClass()) & typeMask) != 0;
+    }
+
+    /**
+     * @return the closest entity of the given types whose bounding box touches the area, other than {@code self}
+     */
+    @Nullable
+    public LivingEntity findNearest(Entity self, AABB area, long typeMask) {
+        LivingEntity closest = null;
+        double closestDistance = Double.MAX_VALUE;
+        for (LivingEntity entity : this.getEntities(self, area, typeMask)) {
+            double distance = entity.distanceToSqr(self);
+            if (distance < closestDistance) {
+                closest = entity;
+                closestDistance = distance;
+            }
+        }
+        return closest;
+    }
+
+    /**
+     * @return every entity of the given types whose bounding box touches the area, other than {@code self}
+     */
+    public List<LivingEntity> getEntities(Entity self, AABB area, long typeMask) {
+        List<LivingEntity> found = new ArrayList<>();
+
+        // Entities are filed by the cell of their position, so widen the search to catch anything poking in
+        int minX = Mth.floor(area.minX - 2.0) >> CELL_SHIFT;
+        int minY = Mth.floor(area.minY - 2.0) >> CELL_SHIFT;
+        int minZ = Mth.floor(area.minZ - 2.0) >> CELL_SHIFT;
+        int maxX = Mth.floor(area.maxX + 2.0) >> CELL_SHIFT;
+        int maxY = Mth.floor(area.maxY + 2.0) >> CELL_SHIFT;
+        int maxZ = Mth.floor(area.maxZ + 2.0) >> CELL_SHIFT;
+
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                for (int y = minY; y <= maxY; y++) {
+                    List<LivingEntity> cell = this.cells.get(SectionPos.asLong(x, y, z));
+                    if (cell == null) {
+                        continue;
+                    }
+
+                    for (LivingEntity entity : cell) {
+                        if (entity != self && !entity.isRemoved() && matches(entity, typeMask) && area.intersects(entity.getBoundingBox())) {
+                            found.add(entity);
+                        }
+                    }
+                }
+            }
+        }
+
+        return found;
+    }
+
+    private void ensureBuilt(ServerLevel level) {
+        long gameTime = level.getGameTime();
+        if (this.builtTime == gameTime) {
+            return;
+        }
+        this.builtTime = gameTime;
+
+        this.cells.clear();
+        for (Entity entity : level.getAllEntities()) {
+            if (entity instanceof LivingEntity living && entity.isAlive()) {
+                long key = SectionPos.asLong(entity.getBlockX() >> CELL_SHIFT, entity.getBlockY() >> CELL_SHIFT, entity.getBlockZ() >> CELL_SHIFT);
+                this.cells.computeIfAbsent(key, k -> new ArrayList<>()).add(living);
+            }
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package net.tropicraft.core.common.entity.ai.koa;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.ChestBlock;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraftforge.event.world.BlockEvent;
+import net.minecraftforge.event.world.ChunkEvent;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.tropicraft.Constants;
+import net.tropicraft.core.common.TropicraftTags;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Per-level index of the blocks Koa look for around their village, bucketed by chunk section.
+ * <p>
+ * Loaded chunks are indexed when they load and dropped when they unload, and block changes in between are picked
+ * up from neighbour notifications. Anything that changes without notifying neighbours is caught when a query
+ * finds the entry no longer matches.
+ */
+@Mod.EventBusSubscriber(modid = Constants.MODID)
+public final class KoaPointsOfInterest {
+    // Only touched from the server thread
+    private static final Map<ResourceKey<Level>, KoaPointsOfInterest> INDICES = new HashMap<>();
+
+    public enum Kind {
+        CHEST(state -> state.getBlock() instanceof ChestBlock),
+        CAMPFIRE(state -> state.is(Blocks.CAMPFIRE)),
+        INSTRUMENT(state -> state.is(TropicraftTags.Blocks.BONGOS) || state.is(Blocks.NOTE_BLOCK));
+
+        private static final Kind[] VALUES = values();
+
+        private final Predicate<BlockState> predicate;
+
+        Kind(Predicate<BlockState> predicate) {
+            this.predicate = predicate;
+        }
+
+        public boolean matches(BlockState state) {
+            return this.predicate.test(state);
+        }
+
+        @Nullable
+        static Kind of(BlockState state) {
+            for (Kind kind : VALUES) {
+                if (kind.matches(state)) {
+                    return kind;
+                }
+            }
+            return null;
+        }
+    }
+
+    private final Map<Kind, Long2ObjectMap<LongSet>> bySection = new EnumMap<>(Kind.class);
+
+    private KoaPointsOfInterest() {
+        for (Kind kind : Kind.VALUES) {
+            this.bySection.put(kind, new Long2ObjectOpenHashMap<>());
+        }
+    }
+
+    public static KoaPointsOfInterest get(ServerLevel level) {
+        return INDICES.computeIfAbsent(level.dimension(), k -> new KoaPointsOfInterest());
+    }
+
+    @SubscribeEvent
+    public static void onChunkLoad(ChunkEvent.Load event) {
+        if (event.getWorld() instanceof ServerLevel level && event.getChunk() instanceof LevelChunk chunk) {
+            get(level).indexChunk(chunk);
+        }
+    }
+
+    @SubscribeEvent
+    public static void onChunkUnload(ChunkEvent.Unload event) {
+        if (event.getWorld() instanceof ServerLevel level) {
+            KoaPointsOfInterest index = INDICES.get(level.dimension());
+            if (index != null) {
+                index.removeChunk(event.getChunk().getPos(), event.getChunk().getMinSection(), event.getChunk().getMaxSection());
+            }
+        }
+    }
+
+    @SubscribeEvent
+    public static void onBlockChanged(BlockEvent.NeighborNotifyEvent event) {
+        if (event.getWorld() instanceof ServerLevel level) {
+            get(level).update(event.getPos(), event.getState());
+        }
+    }
+
+    @SubscribeEvent
+    public static void onWorldUnload(WorldEvent.Unload event) {
+        if (event.getWorld() instanceof ServerLevel level) {
+            INDICES.remove(level.dimension());
+        }
+    }
+
+    /**
+     * Finds the closest block of the given kind within {@code horizontalRange} blocks on the X and Z axes and
+     * {@code verticalRange} blocks on the Y axis.
+     */
+    @Nullable
+    public BlockPos findNearest(Level level, Kind kind, BlockPos origin, int horizontalRange, int verticalRange) {
+        List<BlockPos> found = this.findAll(level, kind, origin, horizontalRange, verticalRange);
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    /**
+     * Finds every block of the given kind within range, see {@link #findNearest}, closest first.
+     */
+    public List<BlockPos> findAll(Level level, Kind kind, BlockPos origin, int horizontalRange, int verticalRange) {
+        Long2ObjectMap<LongSet> sections = this.bySection.get(kind);
+        List<BlockPos> found = new ArrayList<>();
+        BlockPos.MutableBlockPos mutablePos = new BlockPos.MutableBlockPos();
+
+        int minSectionX = SectionPos.blockToSectionCoord(origin.getX() - horizontalRange);
+        int maxSectionX = SectionPos.blockToSectionCoord(origin.getX() + horizontalRange);
+        int minSectionY = SectionPos.blockToSectionCoord(origin.getY() - verticalRange);
+        int maxSectionY = SectionPos.blockToSectionCoord(origin.getY() + verticalRange);
+        int minSectionZ = SectionPos.blockToSectionCoord(origin.getZ() - horizontalRange);
+        int maxSectionZ = SectionPos.blockToSectionCoord(origin.getZ() + horizontalRange);
+
+        for (int sectionX = minSectionX; sectionX <= maxSectionX; sectionX++) {
+            for (int sectionZ = minSectionZ; sectionZ <= maxSectionZ; sectionZ++) {
+                for (int sectionY = minSectionY; sectionY <= maxSectionY; sectionY++) {
+                    LongSet positions = sections.get(SectionPos.asLong(sectionX, sectionY, sectionZ));
+                    if (positions == null) {
+                        continue;
+                    }
+
+                    LongIterator iterator = positions.iterator();
+                    while (iterator.hasNext()) {
+                        long pos = iterator.nextLong();
+                        if (Math.abs(BlockPos.getX(pos) - origin.getX()) > horizontalRange
+                                || Math.abs(BlockPos.getY(pos) - origin.getY()) > verticalRange
+                                || Math.abs(BlockPos.getZ(pos) - origin.getZ()) > horizontalRange) {
+                            continue;
+                        }
+
+                        mutablePos.set(pos);
+                        if (!level.isLoaded(mutablePos) || !kind.matches(level.getBlockState(mutablePos))) {
+                            iterator.remove();
+                            continue;
+                        }
+
+                        found.add(mutablePos.immutable());
+                    }
+                }
+            }
+        }
+
+        found.sort(Comparator.comparingDouble(pos -> pos.distSqr(origin)));
+        return found;
+    }
+
+    /**
+     * Records whatever is now at the given position, dropping it from any kind it no longer matches.
+     */
+    private void update(BlockPos pos, BlockState state) {
+        Kind newKind = Kind.of(state);
+        long posKey = pos.asLong();
+        long sectionKey = SectionPos.blockToSection(posKey);
+        for (Kind kind : Kind.VALUES) {
+            if (kind == newKind) {
+                this.add(kind, posKey);
+                continue;
+            }
+
+            Long2ObjectMap<LongSet> sections = this.bySection.get(kind);
+            LongSet positions = sections.get(sectionKey);
+            if (positions != null && positions.remove(posKey) && positions.isEmpty()) {
+                sections.remove(sectionKey);
+            }
+        }
+    }
+
+    private void indexChunk(LevelChunk chunk) {
+        ChunkPos chunkPos = chunk.getPos();
+        LevelChunkSection[] sections = chunk.getSections();
+        for (int index = 0; index < sections.length; index++) {
+            LevelChunkSection section = sections[index];
+            int sectionY = chunk.getSectionYFromSectionIndex(index);
+            for (Kind kind : Kind.VALUES) {
+                this.bySection.get(kind).remove(SectionPos.asLong(chunkPos.x, sectionY, chunkPos.z));
+            }
+
+            if (section.hasOnlyAir() || !section.maybeHas(state -> Kind.of(state) != null)) {
+                continue;
+            }
+
+            int minX = chunkPos.getMinBlockX();
+            int minY = SectionPos.sectionToBlockCoord(sectionY);
+            int minZ = chunkPos.getMinBlockZ();
+            for (int y = 0; y < 16; y++) {
+                for (int z = 0; z < 16; z++) {
+                    for (int x = 0; x < 16; x++) {
+                        Kind kind = Kind.of(section.getBlockState(x, y, z));
+                        if (kind != null) {
+                            this.add(kind, BlockPos.asLong(minX + x, minY + y, minZ + z));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private void removeChunk(ChunkPos chunkPos, int minSection, int maxSection) {
+        for (Kind kind : Kind.VALUES) {
+            Long2ObjectMap<LongSet> sections = this.bySection.get(kind);
+            for (int sectionY = minSection; sectionY < maxSection; sectionY++) {
+                sections.remove(SectionPos.asLong(chunkPos.x, sectionY, chunkPos.z));
+            }
+        }
+    }
+
+    private void add(Kind kind, long pos) {
+        this.bySection.get(kind).computeIfAbsent(SectionPos.blockToSection(pos), k -> new LongOpenHashSet()).add(pos);
+    }
+}
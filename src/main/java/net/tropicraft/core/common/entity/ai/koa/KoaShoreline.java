@@ -0,0 +1,255 @@
+package net.tropicraft.core.common.entity.ai.koa;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.LongArrayTag;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.levelgen.Heightmap;
+import net.minecraft.world.level.material.Material;
+import net.tropicraft.core.common.Util;
+import net.tropicraft.core.common.entity.ai.LongDistancePathPlanner;
+
+import javax.annotation.Nullable;
+import java.util.Random;
+
+/**
+ * Where a village's fishermen can fish: the surface of deep water right next to land that can be walked to from
+ * the village.
+ * <p>
+ * Loaded chunks around the village are scanned a few at a time as spots are asked for, and scanned again after a
+ * block at their surface changes. Spots are checked again when picked, so anything missed is dropped then.
+ */
+public final class KoaShoreline {
+    private static final int RANGE = 48;
+    static final int CHUNK_RANGE = (RANGE >> 4) + 1;
+    private static final int MAX_CHUNKS_PER_SCAN = 4;
+    // How many random spots are compared when picking one close to a fisherman
+    private static final int PICK_SAMPLES = 8;
+    // How far above the water the land next to it can be and still be fished from
+    private static final int MAX_BANK_HEIGHT = 2;
+
+    private static final int[] STEP_X = {1, -1, 0, 0};
+    private static final int[] STEP_Z = {0, 0, 1, -1};
+
+    private final KoaVillages villages;
+    private final BlockPos center;
+
+    private final LongList spots = new LongArrayList();
+    private final LongSet scannedChunks = new LongOpenHashSet();
+
+    interface ChunkConsumer {
+        void accept(int chunkX, int chunkZ);
+    }
+
+    KoaShoreline(KoaVillages villages, BlockPos center) {
+        this.villages = villages;
+        this.center = center;
+    }
+
+    void load(CompoundTag tag) {
+        for (long spot : tag.getLongArray("spots")) {
+            this.spots.add(spot);
+        }
+        for (long chunk : tag.getLongArray("chunks")) {
+            this.scannedChunks.add(chunk);
+        }
+    }
+
+    CompoundTag save() {
+        CompoundTag tag = new CompoundTag();
+        tag.put("spots", new LongArrayTag(this.spots.toLongArray()));
+        tag.put("chunks", new LongArrayTag(this.scannedChunks.toLongArray()));
+        return tag;
+    }
+
+    /**
+     * Calls the consumer for every chunk a shoreline around the given village center can have spots in.
+     */
+    static void forEachChunk(BlockPos center, ChunkConsumer consumer) {
+        int centerChunkX = center.getX() >> 4;
+        int centerChunkZ = center.getZ() >> 4;
+        for (int chunkX = centerChunkX - CHUNK_RANGE; chunkX <= centerChunkX + CHUNK_RANGE; chunkX++) {
+            for (int chunkZ = centerChunkZ - CHUNK_RANGE; chunkZ <= centerChunkZ + CHUNK_RANGE; chunkZ++) {
+                consumer.accept(chunkX, chunkZ);
+            }
+        }
+    }
+
+    /**
+     * @return whether a block that just changed at the given position is close enough to the surface of its column
+     * to have changed what a scan would find there. The scan only looks at the top of each column, so anything
+     * further down, or well above the new top after a removal, doesn't matter.
+     */
+    static boolean isNearSurface(ServerLevel level, BlockPos pos) {
+        LevelChunk chunk = level.getChunkSource().getChunkNow(pos.getX() >> 4, pos.getZ() >> 4);
+        if (chunk == null) {
+            return false;
+        }
+        // The heightmap has already been updated, so a placed block is the new top and a removed one sits just above it
+        int height = chunk.getHeight(Heightmap.Types.MOTION_BLOCKING, pos.getX() & 15, pos.getZ() & 15);
+        return pos.getY() >= height - 1 && pos.getY() <= height + 1;
+    }
+
+    /**
+     * Forgets what was found in the chunk containing the given position, so it gets scanned again.
+     */
+    void invalidate(BlockPos pos) {
+        int chunkX = pos.getX() >> 4;
+        int chunkZ = pos.getZ() >> 4;
+        if (Math.abs(chunkX - (this.center.getX() >> 4)) > CHUNK_RANGE || Math.abs(chunkZ - (this.center.getZ() >> 4)) > CHUNK_RANGE) {
+            return;
+        }
+
+        if (this.scannedChunks.remove(ChunkPos.asLong(chunkX, chunkZ))) {
+            this.spots.removeIf(spot -> BlockPos.getX(spot) >> 4 == chunkX && BlockPos.getZ(spot) >> 4 == chunkZ);
+            this.villages.setDirty();
+        }
+    }
+
+    /**
+     * Picks a spot to fish at, preferring ones close to the given position.
+     *
+     * @return the water block to fish in, or null if no spot is known yet
+     */
+    @Nullable
+    public BlockPos pickSpot(ServerLevel level, BlockPos near, Random random) {
+        this.scan(level);
+
+        BlockPos closest = null;
+        double closestDistance = Double.MAX_VALUE;
+        for (int i = 0; i < PICK_SAMPLES && !this.spots.isEmpty(); i++) {
+            int index = random.nextInt(this.spots.size());
+            BlockPos spot = BlockPos.of(this.spots.getLong(index));
+            if (!level.isLoaded(spot)) {
+                continue;
+            }
+
+            if (!Util.isDeepWater(level, spot)) {
+                this.removeSpot(index);
+                continue;
+            }
+
+            double distance = spot.distSqr(near);
+            if (distance < closestDistance) {
+                closest = spot;
+                closestDistance = distance;
+            }
+        }
+        return closest;
+    }
+
+    /**
+     * Finds the bank of the closest spot to the given position, for fishermen that ended up in the water.
+     *
+     * @return the land block to walk onto, or null if no spot is known yet
+     */
+    @Nullable
+    public BlockPos findBank(ServerLevel level, BlockPos near) {
+        this.scan(level);
+
+        BlockPos bank = null;
+        double closestDistance = Double.MAX_VALUE;
+        for (int i = 0; i < this.spots.size(); i++) {
+            long spot = this.spots.getLong(i);
+            double deltaX = BlockPos.getX(spot) - near.getX();
+            double deltaZ = BlockPos.getZ(spot) - near.getZ();
+            double distance = deltaX * deltaX + deltaZ * deltaZ;
+            if (distance < closestDistance) {
+                BlockPos spotBank = this.getBank(level, BlockPos.getX(spot), BlockPos.getY(spot), BlockPos.getZ(spot));
+                if (spotBank != null) {
+                    bank = spotBank;
+                    closestDistance = distance;
+                }
+            }
+        }
+        return bank;
+    }
+
+    private void removeSpot(int index) {
+        int last = this.spots.size() - 1;
+        this.spots.set(index, this.spots.getLong(last));
+        this.spots.removeLong(last);
+        this.villages.setDirty();
+    }
+
+    private void scan(ServerLevel level) {
+        int centerChunkX = this.center.getX() >> 4;
+        int centerChunkZ = this.center.getZ() >> 4;
+        int scanned = 0;
+        for (int chunkX = centerChunkX - CHUNK_RANGE; chunkX <= centerChunkX + CHUNK_RANGE && scanned < MAX_CHUNKS_PER_SCAN; chunkX++) {
+            for (int chunkZ = centerChunkZ - CHUNK_RANGE; chunkZ <= centerChunkZ + CHUNK_RANGE && scanned < MAX_CHUNKS_PER_SCAN; chunkZ++) {
+                long chunkKey = ChunkPos.asLong(chunkX, chunkZ);
+                if (this.scannedChunks.contains(chunkKey)) {
+                    continue;
+                }
+
+                LevelChunk chunk = level.getChunkSource().getChunkNow(chunkX, chunkZ);
+                if (chunk != null) {
+                    this.scanChunk(level, chunk);
+                    this.scannedChunks.add(chunkKey);
+                    this.villages.setDirty();
+                    scanned++;
+                }
+            }
+        }
+    }
+
+    private void scanChunk(ServerLevel level, LevelChunk chunk) {
+        ChunkPos chunkPos = chunk.getPos();
+        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+        for (int z = 0; z < 16; z++) {
+            for (int x = 0; x < 16; x++) {
+                int worldX = chunkPos.getBlockX(x);
+                int worldZ = chunkPos.getBlockZ(z);
+                int deltaX = worldX - this.center.getX();
+                int deltaZ = worldZ - this.center.getZ();
+                if (deltaX * deltaX + deltaZ * deltaZ > RANGE * RANGE) {
+                    continue;
+                }
+
+                int height = chunk.getHeight(Heightmap.Types.MOTION_BLOCKING, x, z);
+                if (chunk.getBlockState(pos.set(worldX, height, worldZ)).getMaterial() != Material.WATER
+                        || chunk.getBlockState(pos.set(worldX, height - 1, worldZ)).getMaterial() != Material.WATER) {
+                    continue;
+                }
+
+                BlockPos bank = this.getBank(level, worldX, height, worldZ);
+                if (bank != null && LongDistancePathPlanner.get(level).isReachable(level, this.center, bank)) {
+                    this.spots.add(BlockPos.asLong(worldX, height, worldZ));
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the land next to the given water surface block that a fisherman can stand on, if any
+     */
+    @Nullable
+    private BlockPos getBank(ServerLevel level, int x, int waterHeight, int z) {
+        for (int i = 0; i < STEP_X.length; i++) {
+            int bankX = x + STEP_X[i];
+            int bankZ = z + STEP_Z[i];
+            LevelChunk chunk = level.getChunkSource().getChunkNow(bankX >> 4, bankZ >> 4);
+            if (chunk == null) {
+                continue;
+            }
+
+            int height = chunk.getHeight(Heightmap.Types.MOTION_BLOCKING_NO_LEAVES, bankX & 15, bankZ & 15);
+            if (height < waterHeight || height > waterHeight + MAX_BANK_HEIGHT) {
+                continue;
+            }
+
+            BlockPos bank = new BlockPos(bankX, height, bankZ);
+            if (chunk.getFluidState(bank).isEmpty() && Util.isLand(level, bank)) {
+                return bank;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,229 @@
+package net.tropicraft.core.common.entity.ai.koa;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongList;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.LongArrayTag;
+import net.minecraft.nbt.NbtUtils;
+import net.minecraft.nbt.Tag;
+import net.minecraft.world.phys.AABB;
+import net.tropicraft.core.common.entity.passive.EntityKoaBase;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * State shared by every Koa in a village: where the home chest, fireplace, drums and fishing spots are, who lives
+ * there and the drum tempo. Members read and write it directly rather than copying it from each other.
+ */
+public final class KoaVillage {
+    // A published tempo is followed by the rest of the village for this long
+    private static final long TEMPO_LIFETIME = 20;
+
+    private final KoaVillages villages;
+    private final int id;
+    private final BlockPos center;
+
+    @Nullable
+    private BlockPos homeChest;
+    @Nullable
+    private BlockPos fireplace;
+    private final List<BlockPos> drums = new ArrayList<>();
+    private final Set<UUID> members = new HashSet<>();
+    private final KoaShoreline shoreline;
+
+    // Not persisted, these only describe the members currently loaded
+    private final Set<EntityKoaBase> loadedMembers = new ReferenceOpenHashSet<>();
+    @Nullable
+    private Tempo tempo;
+    private long tempoTime;
+    private boolean removed;
+
+    public record Tempo(int hitDelay, int hitIndex, int hitIndex2, int hitIndex3) {
+    }
+
+    KoaVillage(KoaVillages villages, int id, BlockPos center) {
+        this.villages = villages;
+        this.id = id;
+        this.center = center.immutable();
+        this.shoreline = new KoaShoreline(villages, this.center);
+    }
+
+    static KoaVillage load(KoaVillages villages, CompoundTag tag) {
+        KoaVillage village = new KoaVillage(villages, tag.getInt("id"), BlockPos.of(tag.getLong("center")));
+        if (tag.contains("home_chest")) {
+            village.homeChest = BlockPos.of(tag.getLong("home_chest"));
+        }
+        if (tag.contains("fireplace")) {
+            village.fireplace = BlockPos.of(tag.getLong("fireplace"));
+        }
+        for (long drum : tag.getLongArray("drums")) {
+            village.drums.add(BlockPos.of(drum));
+        }
+        for (Tag member : tag.getList("members", Tag.TAG_INT_ARRAY)) {
+            village.members.add(NbtUtils.loadUUID(member));
+        }
+        village.shoreline.load(tag.getCompound("shoreline"));
+        return village;
+    }
+
+    CompoundTag save() {
+        CompoundTag tag = new CompoundTag();
+        tag.putInt("id", this.id);
+        tag.putLong("center", this.center.asLong());
+        if (this.homeChest != null) {
+            tag.putLong("home_chest", this.homeChest.asLong());
+        }
+        if (this.fireplace != null) {
+            tag.putLong("fireplace", this.fireplace.asLong());
+        }
+
+        LongList drums = new LongArrayList(this.drums.size());
+        for (BlockPos drum : this.drums) {
+            drums.add(drum.asLong());
+        }
+        tag.put("drums", new LongArrayTag(drums.toLongArray()));
+
+        ListTag members = new ListTag();
+        for (UUID member : this.members) {
+            members.add(NbtUtils.createUUID(member));
+        }
+        tag.put("members", members);
+        tag.put("shoreline", this.shoreline.save());
+        return tag;
+    }
+
+    public int getId() {
+        return this.id;
+    }
+
+    public BlockPos getCenter() {
+        return this.center;
+    }
+
+    @Nullable
+    public BlockPos getHomeChest() {
+        return this.homeChest;
+    }
+
+    public void setHomeChest(@Nullable BlockPos homeChest) {
+        this.homeChest = homeChest != null ? homeChest.immutable() : null;
+        this.villages.setDirty();
+    }
+
+    @Nullable
+    public BlockPos getFireplace() {
+        return this.fireplace;
+    }
+
+    public void setFireplace(@Nullable BlockPos fireplace) {
+        this.fireplace = fireplace != null ? fireplace.immutable() : null;
+        this.villages.setDirty();
+    }
+
+    public List<BlockPos> getDrums() {
+        return Collections.unmodifiableList(this.drums);
+    }
+
+    public void addDrum(BlockPos pos) {
+        if (this.drums.size() < EntityKoaBase.MAX_DRUMS && !this.drums.contains(pos)) {
+            this.drums.add(pos.immutable());
+            this.villages.setDirty();
+        }
+    }
+
+    public void removeDrum(BlockPos pos) {
+        if (this.drums.remove(pos)) {
+            this.villages.setDirty();
+        }
+    }
+
+    public void addMember(EntityKoaBase koa) {
+        if (this.members.add(koa.getUUID())) {
+            this.villages.setDirty();
+        }
+        this.loadedMembers.add(koa);
+    }
+
+    /**
+     * Takes the Koa out of the village, removing the village once nobody lives there anymore.
+     */
+    public void removeMember(EntityKoaBase koa) {
+        if (this.members.remove(koa.getUUID())) {
+            this.villages.setDirty();
+        }
+        this.loadedMembers.remove(koa);
+        if (this.members.isEmpty()) {
+            this.villages.remove(this);
+        }
+    }
+
+    /**
+     * @return whether the village has been removed for having no members left
+     */
+    public boolean isRemoved() {
+        return this.removed;
+    }
+
+    void markRemoved() {
+        this.removed = true;
+    }
+
+    public KoaShoreline getShoreline() {
+        return this.shoreline;
+    }
+
+    public int getPopulation() {
+        return this.members.size();
+    }
+
+    /**
+     * Notes that a member has been loaded into the world.
+     */
+    public void trackLoaded(EntityKoaBase koa) {
+        if (this.members.contains(koa.getUUID())) {
+            this.loadedMembers.add(koa);
+        }
+    }
+
+    /**
+     * Notes that a member has been unloaded, without removing it from the village.
+     */
+    public void untrackLoaded(EntityKoaBase koa) {
+        this.loadedMembers.remove(koa);
+    }
+
+    /**
+     * @return the loaded members whose bounding box touches the given area
+     */
+    public List<EntityKoaBase> getLoadedMembersWithin(AABB area) {
+        List<EntityKoaBase> found = new ArrayList<>();
+        for (EntityKoaBase koa : this.loadedMembers) {
+            if (!koa.isRemoved() && area.intersects(koa.getBoundingBox())) {
+                found.add(koa);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * @return the tempo the village is currently playing, or null if nobody has published one recently
+     */
+    @Nullable
+    public Tempo getTempo(long gameTime) {
+        return gameTime - this.tempoTime < TEMPO_LIFETIME ? this.tempo : null;
+    }
+
+    public void setTempo(Tempo tempo, long gameTime) {
+        this.tempo = tempo;
+        this.tempoTime = gameTime;
+    }
+}
@@ -0,0 +1,169 @@
+package net.tropicraft.core.common.entity.ai.koa;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.saveddata.SavedData;
+import net.minecraftforge.event.world.BlockEvent;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.tropicraft.Constants;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Persistent per-dimension registry of {@link KoaVillage}s, keyed by the village ID stored on each Koa.
+ */
+@Mod.EventBusSubscriber(modid = Constants.MODID)
+public class KoaVillages extends SavedData {
+    private static final String STORAGE_ID = Constants.MODID + "_koa_villages";
+
+    // The registries handed out so far, so block changes don't go through the data storage to find them.
+    // Only touched from the server thread
+    private static final Map<ResourceKey<Level>, KoaVillages> LOADED = new HashMap<>();
+
+    private final Int2ObjectMap<KoaVillage> villages = new Int2ObjectOpenHashMap<>();
+    // Not persisted, the villages whose shoreline reaches into each chunk
+    private final Long2ObjectMap<List<KoaVillage>> villagesByChunk = new Long2ObjectOpenHashMap<>();
+    private int nextId;
+
+    public static KoaVillages get(ServerLevel level) {
+        KoaVillages villages = LOADED.get(level.dimension());
+        if (villages == null) {
+            villages = level.getDataStorage().computeIfAbsent(KoaVillages::load, KoaVillages::new, STORAGE_ID);
+            LOADED.put(level.dimension(), villages);
+        }
+        return villages;
+    }
+
+    @SubscribeEvent
+    public static void onBlockChanged(BlockEvent.NeighborNotifyEvent event) {
+        if (event.getWorld() instanceof ServerLevel level) {
+            // Nothing has asked for the villages in this dimension yet, so there is nothing scanned to forget
+            KoaVillages villages = LOADED.get(level.dimension());
+            if (villages == null) {
+                return;
+            }
+
+            BlockPos pos = event.getPos();
+            List<KoaVillage> nearby = villages.villagesByChunk.get(ChunkPos.asLong(SectionPos.blockToSectionCoord(pos.getX()), SectionPos.blockToSectionCoord(pos.getZ())));
+            if (nearby == null || !KoaShoreline.isNearSurface(level, pos)) {
+                return;
+            }
+
+            for (KoaVillage village : nearby) {
+                village.getShoreline().invalidate(pos);
+            }
+        }
+    }
+
+    @SubscribeEvent
+    public static void onWorldUnload(WorldEvent.Unload event) {
+        if (event.getWorld() instanceof ServerLevel level) {
+            LOADED.remove(level.dimension());
+        }
+    }
+
+    private static KoaVillages load(CompoundTag tag) {
+        KoaVillages villages = new KoaVillages();
+        villages.nextId = tag.getInt("next_id");
+        for (Tag villageTag : tag.getList("villages", Tag.TAG_COMPOUND)) {
+            KoaVillage village = KoaVillage.load(villages, (CompoundTag) villageTag);
+            // Villages used to be kept around after their last member left
+            if (village.getPopulation() > 0) {
+                villages.add(village);
+            }
+        }
+        return villages;
+    }
+
+    @Override
+    public CompoundTag save(CompoundTag tag) {
+        tag.putInt("next_id", this.nextId);
+        ListTag villages = new ListTag();
+        for (KoaVillage village : this.villages.values()) {
+            villages.add(village.save());
+        }
+        tag.put("villages", villages);
+        return tag;
+    }
+
+    @Nullable
+    public KoaVillage getVillage(int id) {
+        return this.villages.get(id);
+    }
+
+    public KoaVillage create(BlockPos center) {
+        KoaVillage village = new KoaVillage(this, this.nextId++, center);
+        this.add(village);
+        this.setDirty();
+        return village;
+    }
+
+    void remove(KoaVillage village) {
+        if (!this.villages.remove(village.getId(), village)) {
+            return;
+        }
+
+        village.markRemoved();
+        KoaShoreline.forEachChunk(village.getCenter(), (chunkX, chunkZ) -> {
+            long chunkKey = ChunkPos.asLong(chunkX, chunkZ);
+            List<KoaVillage> nearby = this.villagesByChunk.get(chunkKey);
+            if (nearby != null) {
+                nearby.remove(village);
+                if (nearby.isEmpty()) {
+                    this.villagesByChunk.remove(chunkKey);
+                }
+            }
+        });
+        this.setDirty();
+    }
+
+    private void add(KoaVillage village) {
+        this.villages.put(village.getId(), village);
+        KoaShoreline.forEachChunk(village.getCenter(), (chunkX, chunkZ) ->
+                this.villagesByChunk.computeIfAbsent(ChunkPos.asLong(chunkX, chunkZ), k -> new ArrayList<>()).add(village));
+    }
+
+    /**
+     * @return the village whose center is closest to the given position, within {@code range} blocks
+     */
+    @Nullable
+    public KoaVillage findNearest(BlockPos pos, int range) {
+        // Every village within range is in the bucket of this chunk, as long as the range is within the buckets' reach
+        Iterable<KoaVillage> candidates = this.villages.values();
+        if ((range >> 4) + 1 <= KoaShoreline.CHUNK_RANGE) {
+            List<KoaVillage> nearby = this.villagesByChunk.get(ChunkPos.asLong(SectionPos.blockToSectionCoord(pos.getX()), SectionPos.blockToSectionCoord(pos.getZ())));
+            if (nearby == null) {
+                return null;
+            }
+            candidates = nearby;
+        }
+
+        KoaVillage closest = null;
+        double closestDistance = (double) range * range;
+        for (KoaVillage village : candidates) {
+            double distance = village.getCenter().distSqr(pos);
+            if (distance <= closestDistance) {
+                closest = village;
+                closestDistance = distance;
+            }
+        }
+        return closest;
+    }
+}
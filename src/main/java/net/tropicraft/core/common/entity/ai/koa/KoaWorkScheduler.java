@@ -0,0 +1,150 @@
+package net.tropicraft.core.common.entity.ai.koa;
+
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.level.Level;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.tropicraft.Constants;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-level queue for expensive Koa AI work such as block scans and long path requests.
+ * <p>
+ * Work is run at the end of the level tick in the order it was submitted, until the tick's time budget is used
+ * up; whatever is left waits for the next tick. Each entity can have at most one piece of work of each kind
+ * queued, so goals can keep asking every tick without piling up duplicates.
+ */
+@Mod.EventBusSubscriber(modid = Constants.MODID)
+public final class KoaWorkScheduler {
+    private static final long TICK_BUDGET_NANOS = 2_000_000L;
+    // Always make some progress, even if a single piece of work blows the budget
+    private static final int MIN_WORK_PER_TICK = 1;
+
+    // Only touched from the server thread
+    private static final Map<ResourceKey<Level>, KoaWorkScheduler> SCHEDULERS = new HashMap<>();
+
+    private final Map<Key, Work> queue = new LinkedHashMap<>();
+
+    private long gameTime;
+
+    // Not persisted, these only describe the current session
+    private long completed;
+    private long deferred;
+    private long maxWaitTicks;
+    private long lastTickNanos;
+
+    private record Key(Entity owner, String kind) {
+    }
+
+    private record Work(Runnable task, long submitTime) {
+    }
+
+    public static KoaWorkScheduler get(ServerLevel level) {
+        return SCHEDULERS.computeIfAbsent(level.dimension(), k -> new KoaWorkScheduler());
+    }
+
+    @SubscribeEvent
+    public static void onWorldTick(TickEvent.WorldTickEvent event) {
+        if (event.phase == TickEvent.Phase.END && event.world instanceof ServerLevel level) {
+            KoaWorkScheduler scheduler = SCHEDULERS.get(level.dimension());
+            if (scheduler != null) {
+                scheduler.tick(level.getGameTime());
+            }
+        }
+    }
+
+    @SubscribeEvent
+    public static void onWorldUnload(WorldEvent.Unload event) {
+        if (event.getWorld() instanceof ServerLevel level) {
+            SCHEDULERS.remove(level.dimension());
+        }
+    }
+
+    /**
+     * Queues work on behalf of the given entity, unless work of the same kind is already queued for it.
+     * The work is dropped if the entity is removed before it runs.
+     *
+     * @return true if the work was queued, false if it was already pending
+     */
+    public boolean submit(Entity owner, String kind, Runnable task) {
+        return this.queue.putIfAbsent(new Key(owner, kind), new Work(task, this.gameTime)) == null;
+    }
+
+    /**
+     * Drops the given kind of work for the entity if it hasn't run yet.
+     */
+    public void cancel(Entity owner, String kind) {
+        this.queue.remove(new Key(owner, kind));
+    }
+
+    public boolean isPending(Entity owner, String kind) {
+        return this.queue.containsKey(new Key(owner, kind));
+    }
+
+    private void tick(long gameTime) {
+        this.gameTime = gameTime;
+        if (this.queue.isEmpty()) {
+            this.lastTickNanos = 0;
+            return;
+        }
+
+        long start = System.nanoTime();
+        int run = 0;
+
+        Iterator<Map.Entry<Key, Work>> iterator = this.queue.entrySet().iterator();
+        while (iterator.hasNext()) {
+            if (run >= MIN_WORK_PER_TICK && System.nanoTime() - start >= TICK_BUDGET_NANOS) {
+                break;
+            }
+
+            Map.Entry<Key, Work> entry = iterator.next();
+            iterator.remove();
+            if (entry.getKey().owner().isRemoved()) {
+                continue;
+            }
+
+            Work work = entry.getValue();
+            this.maxWaitTicks = Math.max(this.maxWaitTicks, gameTime - work.submitTime());
+            work.task().run();
+            this.completed++;
+            run++;
+        }
+
+        this.deferred += this.queue.size();
+        this.lastTickNanos = System.nanoTime() - start;
+    }
+
+    /**
+     * @return how much work is waiting to run
+     */
+    public int getQueueDepth() {
+        return this.queue.size();
+    }
+
+    public long getCompleted() {
+        return this.completed;
+    }
+
+    /**
+     * @return the total number of times work was left in the queue at the end of a tick
+     */
+    public long getDeferred() {
+        return this.deferred;
+    }
+
+    public long getMaxWaitTicks() {
+        return this.maxWaitTicks;
+    }
+
+    public long getLastTickNanos() {
+        return this.lastTickNanos;
+    }
+}
@@ -55,7 +55,6 @@ import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraft.world.level.block.entity.ChestBlockEntity;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.level.pathfinder.BlockPathTypes;
-import net.minecraft.world.phys.AABB;
 import net.minecraft.world.phys.HitResult;
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.api.distmarker.OnlyIn;
@@ -63,6 +62,10 @@ import net.minecraftforge.registries.RegistryObject;
 import net.tropicraft.core.common.TropicraftTags;
 import net.tropicraft.core.common.entity.TropicraftEntities;
 import net.tropicraft.core.common.entity.ai.*;
+import net.tropicraft.core.common.entity.ai.koa.KoaPointsOfInterest;
+import net.tropicraft.core.common.entity.ai.koa.KoaVillage;
+import net.tropicraft.core.common.entity.ai.koa.KoaVillages;
+import net.tropicraft.core.common.entity.ai.koa.KoaWorkScheduler;
 import net.tropicraft.core.common.item.TropicraftItems;
 
 import javax.annotation.Nullable;
@@ -70,7 +73,6 @@ import java.util.*;
 
 public class EntityKoaBase extends Villager {
 
-    //TODO: consider serializing found water sources to prevent them refinding each time, which old AI did
     public long lastTimeFished = 0;
 
     public BlockPos posLastFireplaceFound = null;
@@ -91,6 +93,13 @@ public class EntityKoaBase extends Villager {
 
     private int villageID = -1;
 
+    // Resolved from villageID when first needed
+    @Nullable
+    private KoaVillage village;
+
+    private static final int VILLAGE_JOIN_RANGE = 32;
+    private static final String WORK_VILLAGE_SCAN = "village_scan";
+
     private ResourceKey<Level> villageDimension;
 
     private FishingBobberEntity lure;
@@ -543,11 +552,9 @@ public class EntityKoaBase extends Villager {
         }*/
 
         monitorHomeVillage();
-        //adjust home position to chest right nearby for easy item spawning
-        findAndSetHomeToCloseChest(false);
-        findAndSetFireSource(false);
-        findAndSetDrums(false);
-        findAndSetTownID(false);
+        if ((level.getGameTime()+this.getId()) % (20*30) == 0) {
+            scheduleVillageScan();
+        }
 
     }
 
@@ -839,7 +846,7 @@ public class EntityKoaBase extends Villager {
         if (!compound.contains("village_dimension")) {
             this.villageDimension = level.dimension();
         } else {
-            this.villageDimension = ResourceKey.create(Registry.DIMENSION_REGISTRY, new ResourceLocation(compound.getString("village_dim_id")));
+            this.villageDimension = ResourceKey.create(Registry.DIMENSION_REGISTRY, new ResourceLocation(compound.getString("village_dimension")));
         }
 
         if (compound.contains("role_id")) {
@@ -951,6 +958,21 @@ public class EntityKoaBase extends Villager {
         return null;
     }*/
 
+    /**
+     * Queues a refresh of our village, home chest, fireplace and drums, to run once the level has time for it.
+     */
+    public void scheduleVillageScan() {
+        if (level instanceof ServerLevel serverLevel) {
+            KoaWorkScheduler.get(serverLevel).submit(this, WORK_VILLAGE_SCAN, () -> {
+                findAndSetTownID(true);
+                //adjust home position to chest right nearby for easy item spawning
+                findAndSetHomeToCloseChest(true);
+                findAndSetFireSource(true);
+                findAndSetDrums(true);
+            });
+        }
+    }
+
     public void findAndSetHomeToCloseChest(boolean force) {
 
         if (!force && (level.getGameTime()+this.getId()) % (20*30) != 0) return;
@@ -967,20 +989,24 @@ public class EntityKoaBase extends Villager {
             }
         }
 
-        if (tryFind) {
+        if (tryFind && level instanceof ServerLevel serverLevel) {
+            KoaVillage village = getVillage();
+            if (village != null && village.getHomeChest() != null) {
+                if (level.getBlockEntity(village.getHomeChest()) instanceof ChestBlockEntity) {
+                    dbg("found chest from village, updating home position to " + village.getHomeChest());
+                    restrictTo(village.getHomeChest(), MAX_HOME_DISTANCE);
+                    return;
+                }
+                village.setHomeChest(null);
+            }
+
             int range = 20;
-            for (int x = -range; x <= range; x++) {
-                for (int y = -range / 2; y <= range / 2; y++) {
-                    for (int z = -range; z <= range; z++) {
-                        BlockPos pos = this.blockPosition().offset(x, y, z);
-                        BlockEntity tile = level.getBlockEntity(pos);
-                        if (tile instanceof ChestBlockEntity) {
-                            //System.out.println("found chest, updating home position to " + pos);
-                            dbg("found chest, updating home position to " + pos);
-                            restrictTo(pos, MAX_HOME_DISTANCE);
-                            return;
-                        }
-                    }
+            BlockPos pos = KoaPointsOfInterest.get(serverLevel).findNearest(level, KoaPointsOfInterest.Kind.CHEST, this.blockPosition(), range, range / 2);
+            if (pos != null) {
+                dbg("found chest, updating home position to " + pos);
+                restrictTo(pos, MAX_HOME_DISTANCE);
+                if (village != null) {
+                    village.setHomeChest(pos);
                 }
             }
         }
@@ -989,23 +1015,20 @@ public class EntityKoaBase extends Villager {
     public boolean findAndSetTownID(boolean force) {
         if (!force && (level.getGameTime()+this.getId()) % (20*30) != 0) return false;
 
-        boolean tryFind = false;
-
-        if (villageID == -1 || villageDimension == null) {
-            tryFind = true;
+        if (villageDimension == null) {
             //make sure return status is correct
             villageID = -1;
         }
 
-        if (tryFind) {
-            List<EntityKoaBase> listEnts = level.getEntitiesOfClass(EntityKoaBase.class, new AABB(this.blockPosition()).inflate(20, 20, 20));
-            Collections.shuffle(listEnts);
-            for (EntityKoaBase ent : listEnts) {
-                if (ent.villageID != -1 && ent.villageDimension != null) {
-                    this.setVillageAndDimID(ent.villageID, ent.villageDimension);
-                    break;
-                }
+        if (getVillage() == null && level instanceof ServerLevel serverLevel) {
+            // Join the closest village, or found one around our home if there is none
+            BlockPos home = getRestrictCenter().equals(BlockPos.ZERO) ? this.blockPosition() : getRestrictCenter();
+            KoaVillages villages = KoaVillages.get(serverLevel);
+            KoaVillage village = villages.findNearest(home, VILLAGE_JOIN_RANGE);
+            if (village == null) {
+                village = villages.create(home);
             }
+            this.setVillageAndDimID(village.getId(), level.dimension());
         }
 
         return this.villageID != -1;
@@ -1030,32 +1053,24 @@ public class EntityKoaBase extends Villager {
             }
         }
 
-        if (tryFind) {
-            int range = 20;
-            for (int x = -range; x <= range; x++) {
-                for (int y = -range/2; y <= range/2; y++) {
-                    for (int z = -range; z <= range; z++) {
-                        BlockPos pos = this.blockPosition().offset(x, y, z);
-                        BlockState state = level.getBlockState(pos);
-                        if (state.getBlock() == Blocks.CAMPFIRE) {
-                            dbg("found fire place spot to chill");
-                            setFirelacePos(pos);
-                            return;
-                        }
-                    }
+        if (tryFind && level instanceof ServerLevel serverLevel) {
+            KoaVillage village = getVillage();
+            if (village != null && village.getFireplace() != null) {
+                if (level.getBlockState(village.getFireplace()).getBlock() == Blocks.CAMPFIRE) {
+                    dbg("found fire place spot to chill from village");
+                    setFirelacePos(village.getFireplace());
+                    return;
                 }
+                village.setFireplace(null);
             }
 
-            List<EntityKoaBase> listEnts = level.getEntitiesOfClass(EntityKoaBase.class, new AABB(this.blockPosition()).inflate(20, 20, 20));
-            Collections.shuffle(listEnts);
-            for (EntityKoaBase ent : listEnts) {
-                if (ent.posLastFireplaceFound != null) {
-                    BlockState state = level.getBlockState(ent.posLastFireplaceFound);
-                    if (state.getBlock() == Blocks.CAMPFIRE) {
-                        posLastFireplaceFound = new BlockPos(ent.posLastFireplaceFound);
-                        dbg("found fire place spot to chill from entity");
-                        return;
-                    }
+            int range = 20;
+            BlockPos pos = KoaPointsOfInterest.get(serverLevel).findNearest(level, KoaPointsOfInterest.Kind.CAMPFIRE, this.blockPosition(), range, range / 2);
+            if (pos != null) {
+                dbg("found fire place spot to chill");
+                setFirelacePos(pos);
+                if (village != null) {
+                    village.setFireplace(pos);
                 }
             }
         }
@@ -1065,16 +1080,20 @@ public class EntityKoaBase extends Villager {
     public void syncBPM() {
         if ((level.getGameTime()+this.getId()) % (20) != 0) return;
 
-        List<EntityKoaBase> listEnts = level.getEntitiesOfClass(EntityKoaBase.class, new AABB(this.blockPosition()).inflate(10, 5, 10));
-        //Collections.shuffle(listEnts);
-        for (EntityKoaBase ent : listEnts) {
-            if (hitDelay != ent.hitDelay) {
-                hitDelay = ent.hitDelay;
-                hitIndex = ent.hitIndex;
-                hitIndex2 = ent.hitIndex2;
-                hitIndex3 = ent.hitIndex3;
-                return;
-            }
+        KoaVillage village = getVillage();
+        if (village == null) {
+            return;
+        }
+
+        // Follow whoever last published a tempo, or lead with our own if nobody has recently
+        KoaVillage.Tempo tempo = village.getTempo(level.getGameTime());
+        if (tempo == null) {
+            village.setTempo(new KoaVillage.Tempo(hitDelay, hitIndex, hitIndex2, hitIndex3), level.getGameTime());
+        } else if (hitDelay != tempo.hitDelay()) {
+            hitDelay = tempo.hitDelay();
+            hitIndex = tempo.hitIndex();
+            hitIndex2 = tempo.hitIndex2();
+            hitIndex3 = tempo.hitIndex3();
         }
     }
 
@@ -1097,77 +1116,59 @@ public class EntityKoaBase extends Villager {
             }
         }
 
-        if (listPosDrums.size() >= MAX_DRUMS) {
+        if (!(level instanceof ServerLevel serverLevel)) {
             return;
         }
 
-        List<EntityKoaBase> listEnts = level.getEntitiesOfClass(EntityKoaBase.class, new AABB(this.blockPosition()).inflate(20, 20, 20));
-        Collections.shuffle(listEnts);
-        for (EntityKoaBase ent : listEnts) {
-            if (listPosDrums.size() >= MAX_DRUMS) {
-                return;
-            }
-            Iterator<BlockPos> it2 = ent.listPosDrums.iterator();
-            while (it2.hasNext()) {
-                BlockPos pos = it2.next();
-                //IBlockState state = world.getBlockState(pos);
-
-                boolean match = false;
-
-                Iterator<BlockPos> it3 = listPosDrums.iterator();
-                while (it3.hasNext()) {
-                    BlockPos pos2 = it3.next();
-                    //IBlockState state2 = world.getBlockState(pos2);
-                    if (pos.equals(pos2)) {
-                        match = true;
-                        break;
-                    }
+        KoaVillage village = getVillage();
+        if (village != null) {
+            for (BlockPos pos : List.copyOf(village.getDrums())) {
+                if (!isInstrument(pos)) {
+                    village.removeDrum(pos);
+                } else if (listPosDrums.size() < MAX_DRUMS && !listPosDrums.contains(pos)) {
+                    listPosDrums.add(pos);
                 }
+            }
+        }
 
-                if (!match) {
-                    //System.out.println("drum pos ent: " + pos);
+        if (listPosDrums.size() < MAX_DRUMS) {
+            int range = 20;
+            for (BlockPos pos : KoaPointsOfInterest.get(serverLevel).findAll(level, KoaPointsOfInterest.Kind.INSTRUMENT, this.blockPosition(), range, range / 2)) {
+                if (!listPosDrums.contains(pos)) {
                     listPosDrums.add(pos);
                 }
 
                 if (listPosDrums.size() >= MAX_DRUMS) {
-                    return;
+                    break;
                 }
             }
         }
 
-        int range = 20;
-        for (int x = -range; x <= range; x++) {
-            for (int y = -range/2; y <= range/2; y++) {
-                for (int z = -range; z <= range; z++) {
-                    BlockPos pos = this.blockPosition().offset(x, y, z);
-                    if (isInstrument(pos)) {
-                    //if (state.getBlock() == BlockRegistry.bongo) {
-
-                        boolean match = false;
-
-                        Iterator<BlockPos> it3 = listPosDrums.iterator();
-                        while (it3.hasNext()) {
-                            BlockPos pos2 = it3.next();
-                            //IBlockState state2 = world.getBlockState(pos2);
-                            if (pos.equals(pos2)) {
-                                match = true;
-                                break;
-                            }
-                        }
-
-                        if (!match) {
-                            //System.out.println("drum pos: " + pos);
-                            listPosDrums.add(pos);
-                        }
+        if (village != null) {
+            for (BlockPos pos : listPosDrums) {
+                village.addDrum(pos);
+            }
+        }
+    }
 
-                        if (listPosDrums.size() >= MAX_DRUMS) {
-                            return;
-                        }
+    /**
+     * @return the village this Koa belongs to, or null if it has none in this dimension
+     */
+    @Nullable
+    public KoaVillage getVillage() {
+        if (villageID == -1 || !(level instanceof ServerLevel serverLevel) || level.dimension() != villageDimension) {
+            return null;
+        }
 
-                    }
-                }
+        if (village == null || village.getId() != villageID || village.isRemoved()) {
+            village = KoaVillages.get(serverLevel).getVillage(villageID);
+            if (village == null) {
+                villageID = -1;
+                return null;
             }
+            village.trackLoaded(this);
         }
+        return village;
     }
 
     /*public boolean tryGetVillage() {
@@ -1255,9 +1256,7 @@ public class EntityKoaBase extends Villager {
     public void aiStep() {
         if (finalizedSpawn) {
             finalizedSpawn = false;
-            findAndSetHomeToCloseChest(true);
-            findAndSetFireSource(true);
-            findAndSetDrums(true);
+            scheduleVillageScan();
         }
 
         this.updateSwingTime();
@@ -1374,6 +1373,11 @@ public class EntityKoaBase extends Villager {
     public void setVillageAndDimID(int villageID, ResourceKey<Level> villageDimID) {
         this.villageID = villageID;
         this.villageDimension = villageDimID;
+
+        KoaVillage village = getVillage();
+        if (village != null) {
+            village.addMember(this);
+        }
     }
 
     public ResourceKey<Level> getVillageDimension() {
@@ -1437,9 +1441,19 @@ public class EntityKoaBase extends Villager {
     }*/
 
     @Override
-    public void remove(Entity.RemovalReason pReason) {
-        super.remove(pReason);
+    public void onRemovedFromWorld() {
         if (!level.isClientSide) {
+            KoaVillage village = getVillage();
+            Entity.RemovalReason reason = getRemovalReason();
+            if (village != null) {
+                // Koa that died or went to another dimension no longer live here, unloaded ones do
+                if (reason != null && (reason.shouldDestroy() || reason == Entity.RemovalReason.CHANGED_DIMENSION)) {
+                    village.removeMember(this);
+                } else {
+                    village.untrackLoaded(this);
+                }
+                this.village = null;
+            }
             //System.out.println("hook dead " + this);
             //TODO: 1.14 readd
             /*TownKoaVillage village = getVillage();
@@ -1447,6 +1461,7 @@ public class EntityKoaBase extends Villager {
                 village.hookEntityDied(this);
             }*/
         }
+        super.onRemovedFromWorld();
     }
 
     //TODO: 1.14 readd listener for unload
@@ -1558,12 +1573,18 @@ public class EntityKoaBase extends Villager {
     }
 
     public void zapMemory() {
+        KoaVillage village = getVillage();
+        if (village != null) {
+            village.removeMember(this);
+        }
+
         listPosDrums.clear();
         restrictTo(BlockPos.ZERO, -1);
         setFirelacePos(null);
 
         villageDimension = null;
         villageID = -1;
+        this.village = null;
     }
 
     public void dbg(String msg) {
@@ -27,7 +27,6 @@ import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.level.pathfinder.BlockPathTypes;
 import net.minecraft.world.phys.HitResult;
 import net.minecraft.world.phys.Vec3;
-import net.tropicraft.core.common.entity.TropicraftEntities;
 import net.tropicraft.core.common.item.TropicraftItems;
 
 import javax.annotation.Nullable;
@@ -38,6 +37,10 @@ public class FailgullEntity extends Animal implements FlyingAnimal {
 	private boolean isFlockLeader;
 	private static final EntityDataAccessor<Optional<UUID>> FLOCK_LEADER_UUID = SynchedEntityData.defineId(FailgullEntity.class, EntityDataSerializers.OPTIONAL_UUID);
 
+	// Only set on the server, while the gull is in a level
+	@Nullable
+	FailgullFlock flock;
+
 	public FailgullEntity(EntityType<? extends FailgullEntity> type, Level world) {
 		super(type, world);
 		xpReward = 1;
@@ -79,6 +82,27 @@ public class FailgullEntity extends Animal implements FlyingAnimal {
 		entityData.get(FLOCK_LEADER_UUID).ifPresent(uuid -> nbt.putUUID("FlockLeader", uuid));
 	}
 
+	@Override
+	public void onAddedToWorld() {
+		super.onAddedToWorld();
+		if (level instanceof ServerLevel serverLevel) {
+			Optional<UUID> leader = entityData.get(FLOCK_LEADER_UUID);
+			if (isFlockLeader || leader.isEmpty()) {
+				FailgullFlock.lead(serverLevel, this);
+			} else {
+				FailgullFlock.follow(serverLevel, this, leader.get());
+			}
+		}
+	}
+
+	@Override
+	public void onRemovedFromWorld() {
+		if (flock != null && level instanceof ServerLevel serverLevel) {
+			flock.leave(serverLevel, this);
+		}
+		super.onRemovedFromWorld();
+	}
+
 	@Override
 	public float getWalkTargetValue(final BlockPos pos, final LevelReader worldIn) {
 		return worldIn.getBlockState(pos).isAir() ? 10.0F : 0.0F;
@@ -86,7 +110,6 @@ public class FailgullEntity extends Animal implements FlyingAnimal {
 
 	@Override
 	public void registerGoals() {
-		goalSelector.addGoal(0, new ValidateFlockLeader(this));
 		goalSelector.addGoal(1, new SelectFlockLeader(this));
 		goalSelector.addGoal(2, new SetTravelDestination());
 		goalSelector.addGoal(2, new FollowLeaderGoal());
@@ -143,29 +166,23 @@ public class FailgullEntity extends Animal implements FlyingAnimal {
 		return null;
 	}
 
-	private void setIsFlockLeader(final boolean isFlockLeader) {
+	void setIsFlockLeader(final boolean isFlockLeader) {
 		this.isFlockLeader = isFlockLeader;
 	}
 
-	private void setFlockLeader(final Optional<UUID> flockLeaderUUID) {
+	void setFlockLeader(final Optional<UUID> flockLeaderUUID) {
 		entityData.set(FLOCK_LEADER_UUID, flockLeaderUUID);
 	}
 
 	private boolean getIsFlockLeader() {
-		return isFlockLeader;
+		return flock != null && flock.getLeader() == this;
 	}
 
+	/**
+	 * @return whether the gull is following a leader that is loaded
+	 */
 	private boolean hasFlockLeader() {
-		return entityData.get(FLOCK_LEADER_UUID).isPresent();
-	}
-
-	@Nullable
-	private Entity getFlockLeader() {
-		if (level instanceof ServerLevel && hasFlockLeader()) {
-			return ((ServerLevel) level).getEntity(entityData.get(FLOCK_LEADER_UUID).get());
-		}
-
-		return null;
+		return flock != null && flock.getLeader() != this && flock.getLeaderPos() != null;
 	}
 
 	@Nullable
@@ -220,10 +237,10 @@ public class FailgullEntity extends Animal implements FlyingAnimal {
 
 		@Override
 		public void start() {
-			final Entity flockLeader = getFlockLeader();
+			final BlockPos leaderPos = flock != null ? flock.getLeaderPos() : null;
 			final PathNavigation navigator = getNavigation();
-			if (flockLeader != null && flockLeader.getType() == TropicraftEntities.FAILGULL.get()) {
-				navigator.moveTo(navigator.createPath(flockLeader.blockPosition(), 1), 1.0D);
+			if (leaderPos != null) {
+				navigator.moveTo(navigator.createPath(leaderPos, 1), 1.0D);
 				return;
 			}
 			BlockPos Vector3d = getRandomLocation();
@@ -263,29 +280,6 @@ public class FailgullEntity extends Animal implements FlyingAnimal {
 		}
 	}
 
-	private static class ValidateFlockLeader extends Goal {
-		final FailgullEntity mob;
-
-		public ValidateFlockLeader(FailgullEntity failgullEntity) {
-			mob = failgullEntity;
-		}
-
-		@Override
-		public boolean canUse() {
-			if (mob.getIsFlockLeader()) {
-				return false;
-			}
-
-			final Entity flockLeader = mob.getFlockLeader();
-			return flockLeader == null || !flockLeader.isAlive();
-		}
-
-		@Override
-		public void start() {
-			mob.setFlockLeader(Optional.empty());
-		}
-	}
-
 	private static class SelectFlockLeader extends Goal {
 		final FailgullEntity mob;
 
@@ -295,22 +289,16 @@ public class FailgullEntity extends Animal implements FlyingAnimal {
 
 		@Override
 		public boolean canUse() {
-			return !mob.hasFlockLeader();
+			// Only leaders look for an older flock to join, and not every tick
+			return mob.getIsFlockLeader() && (mob.tickCount + mob.getId()) % 20 == 0;
 		}
 
 		@Override
 		public void start() {
-			List<FailgullEntity> list = mob.level.getEntitiesOfClass(FailgullEntity.class, mob.getBoundingBox().inflate(10D, 10D, 10D));
-			list.remove(mob);
-
-			final Optional<FailgullEntity> oldest = list.stream().min(Comparator.comparingInt(FailgullEntity::getId));
-			// Found an older one nearby, set it as the flock leader
-			if (oldest.isPresent() && !oldest.get().uuid.equals(mob.getUUID())) {
-				final FailgullEntity oldestFailgull = oldest.get();
-				oldestFailgull.setIsFlockLeader(true);
-				oldestFailgull.setFlockLeader(Optional.empty());
-				mob.setIsFlockLeader(false);
-				mob.setFlockLeader(Optional.of(oldestFailgull.getUUID()));
+			final FailgullFlock older = FailgullFlock.findOlder((ServerLevel) mob.level, mob);
+			// Found an older one nearby, bring the whole flock over to it
+			if (older != null && mob.flock != null) {
+				mob.flock.joinFlock((ServerLevel) mob.level, older);
 			}
 		}
 	}
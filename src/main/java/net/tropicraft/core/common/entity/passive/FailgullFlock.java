@@ -0,0 +1,314 @@
+package net.tropicraft.core.common.entity.passive;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.Level;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.tropicraft.Constants;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * A flock of failgulls following one leader.
+ * <p>
+ * The flock holds its leader and members directly, so followers never have to look their leader up by UUID. Once
+ * per tick, before entities tick, each flock copies its leader's position for the members to fly towards, and hands
+ * the lead to its oldest member once the leader dies or is unloaded. Gulls still save their leader's UUID, which is
+ * what flocks are keyed by, so a flock comes back together as its gulls are loaded again.
+ * <p>
+ * Flocks with a loaded leader are also bucketed by the section their leader was in at the start of the tick, so a
+ * gull looking for a flock to join only looks at the sections within reach.
+ */
+@Mod.EventBusSubscriber(modid = Constants.MODID)
+public final class FailgullFlock {
+    private static final double JOIN_RANGE = 10.0;
+    // How long members wait for their leader to be loaded before one of them takes over
+    private static final int LEADER_WAIT_TICKS = 40;
+
+    // Keyed by the current leader's UUID. Only touched from the server thread
+    private static final Map<ResourceKey<Level>, Map<UUID, FailgullFlock>> FLOCKS = new HashMap<>();
+    private static final Map<ResourceKey<Level>, Long2ObjectMap<List<FailgullFlock>>> BY_SECTION = new HashMap<>();
+    private static final List<FailgullFlock> LEADERLESS = new ArrayList<>();
+
+    private final Long2ObjectMap<List<FailgullFlock>> sections;
+    private final List<FailgullEntity> members = new ArrayList<>();
+
+    private UUID leaderId;
+    @Nullable
+    private FailgullEntity leader;
+    @Nullable
+    private BlockPos leaderPos;
+    // The section this flock is bucketed under, if any
+    private long leaderSection = Long.MAX_VALUE;
+    private int leaderMissingTicks;
+
+    private FailgullFlock(Long2ObjectMap<List<FailgullFlock>> sections, UUID leaderId) {
+        this.sections = sections;
+        this.leaderId = leaderId;
+    }
+
+    private static Map<UUID, FailgullFlock> getFlocks(ServerLevel level) {
+        return FLOCKS.computeIfAbsent(level.dimension(), k -> new HashMap<>());
+    }
+
+    private static FailgullFlock getOrCreate(ServerLevel level, UUID leaderId) {
+        Long2ObjectMap<List<FailgullFlock>> sections = BY_SECTION.computeIfAbsent(level.dimension(), k -> new Long2ObjectOpenHashMap<>());
+        return getFlocks(level).computeIfAbsent(leaderId, id -> new FailgullFlock(sections, id));
+    }
+
+    /**
+     * Puts the gull at the head of its flock, starting a new one if no members of it are loaded yet.
+     */
+    static FailgullFlock lead(ServerLevel level, FailgullEntity gull) {
+        FailgullFlock flock = getOrCreate(level, gull.getUUID());
+        flock.leader = gull;
+        flock.setLeaderPos(gull.blockPosition());
+        flock.leaderMissingTicks = 0;
+        gull.setIsFlockLeader(true);
+        gull.setFlockLeader(Optional.empty());
+        gull.flock = flock;
+        return flock;
+    }
+
+    /**
+     * Puts the gull in the flock led by the given gull, whether or not the leader is loaded yet.
+     */
+    static FailgullFlock follow(ServerLevel level, FailgullEntity gull, UUID leaderId) {
+        FailgullFlock flock = getOrCreate(level, leaderId);
+        flock.add(gull);
+        return flock;
+    }
+
+    /**
+     * @return the flock with the oldest leader near the gull that is older than it, if any
+     */
+    @Nullable
+    static FailgullFlock findOlder(ServerLevel level, FailgullEntity gull) {
+        Long2ObjectMap<List<FailgullFlock>> sections = BY_SECTION.get(level.dimension());
+        if (sections == null || sections.isEmpty()) {
+            return null;
+        }
+
+        FailgullFlock oldest = null;
+        int oldestId = gull.getId();
+        int minSectionX = SectionPos.posToSectionCoord(gull.getX() - JOIN_RANGE);
+        int maxSectionX = SectionPos.posToSectionCoord(gull.getX() + JOIN_RANGE);
+        int minSectionY = SectionPos.posToSectionCoord(gull.getY() - JOIN_RANGE);
+        int maxSectionY = SectionPos.posToSectionCoord(gull.getY() + JOIN_RANGE);
+        int minSectionZ = SectionPos.posToSectionCoord(gull.getZ() - JOIN_RANGE);
+        int maxSectionZ = SectionPos.posToSectionCoord(gull.getZ() + JOIN_RANGE);
+        for (int sectionX = minSectionX; sectionX <= maxSectionX; sectionX++) {
+            for (int sectionY = minSectionY; sectionY <= maxSectionY; sectionY++) {
+                for (int sectionZ = minSectionZ; sectionZ <= maxSectionZ; sectionZ++) {
+                    List<FailgullFlock> flocks = sections.get(SectionPos.asLong(sectionX, sectionY, sectionZ));
+                    if (flocks == null) {
+                        continue;
+                    }
+
+                    for (FailgullFlock flock : flocks) {
+                        FailgullEntity leader = flock.leader;
+                        if (leader != null && leader.getId() < oldestId && flock.leaderPos != null
+                                && gull.distanceToSqr(flock.leaderPos.getX() + 0.5, flock.leaderPos.getY() + 0.5, flock.leaderPos.getZ() + 0.5) <= JOIN_RANGE * JOIN_RANGE) {
+                            oldest = flock;
+                            oldestId = leader.getId();
+                        }
+                    }
+                }
+            }
+        }
+        return oldest;
+    }
+
+    @SubscribeEvent
+    public static void onWorldTick(TickEvent.WorldTickEvent event) {
+        if (event.phase != TickEvent.Phase.START || !(event.world instanceof ServerLevel level)) {
+            return;
+        }
+
+        Map<UUID, FailgullFlock> flocks = FLOCKS.get(level.dimension());
+        if (flocks == null) {
+            return;
+        }
+
+        for (Iterator<FailgullFlock> iterator = flocks.values().iterator(); iterator.hasNext(); ) {
+            FailgullFlock flock = iterator.next();
+            flock.members.removeIf(member -> {
+                if (member.isRemoved()) {
+                    member.flock = null;
+                    return true;
+                }
+                return false;
+            });
+
+            FailgullEntity leader = flock.leader;
+            if (leader != null && leader.isAlive() && !leader.isRemoved()) {
+                flock.setLeaderPos(leader.blockPosition());
+                flock.leaderMissingTicks = 0;
+            } else if (flock.members.isEmpty()) {
+                if (leader != null) {
+                    leader.flock = null;
+                }
+                flock.setLeaderPos(null);
+                iterator.remove();
+            } else if (leader != null || ++flock.leaderMissingTicks > LEADER_WAIT_TICKS) {
+                // Handing off changes the flock's key, so leave it until we're done going through them
+                LEADERLESS.add(flock);
+            } else {
+                flock.setLeaderPos(null);
+            }
+        }
+
+        for (FailgullFlock flock : LEADERLESS) {
+            flock.handOff(flocks);
+        }
+        LEADERLESS.clear();
+    }
+
+    @SubscribeEvent
+    public static void onWorldUnload(WorldEvent.Unload event) {
+        if (event.getWorld() instanceof ServerLevel level) {
+            FLOCKS.remove(level.dimension());
+            BY_SECTION.remove(level.dimension());
+        }
+    }
+
+    /**
+     * Takes the gull out of the flock, for when it dies or is unloaded. A leaving leader hands the lead over straight
+     * away.
+     */
+    void leave(ServerLevel level, FailgullEntity gull) {
+        gull.flock = null;
+        if (gull != this.leader) {
+            this.members.remove(gull);
+            return;
+        }
+
+        Map<UUID, FailgullFlock> flocks = getFlocks(level);
+        if (this.members.isEmpty()) {
+            flocks.remove(this.leaderId, this);
+            this.setLeaderPos(null);
+        } else {
+            this.handOff(flocks);
+        }
+    }
+
+    /**
+     * Moves the whole flock, leader included, over to another flock.
+     */
+    void joinFlock(ServerLevel level, FailgullFlock other) {
+        getFlocks(level).remove(this.leaderId, this);
+        this.setLeaderPos(null);
+        for (FailgullEntity member : this.members) {
+            other.add(member);
+        }
+        this.members.clear();
+        if (this.leader != null) {
+            other.add(this.leader);
+            this.leader = null;
+        }
+    }
+
+    @Nullable
+    FailgullEntity getLeader() {
+        return this.leader;
+    }
+
+    /**
+     * @return where the leader was at the start of the tick, or null if it isn't loaded
+     */
+    @Nullable
+    BlockPos getLeaderPos() {
+        return this.leaderPos;
+    }
+
+    private void add(FailgullEntity gull) {
+        this.members.add(gull);
+        gull.setIsFlockLeader(false);
+        gull.setFlockLeader(Optional.of(this.leaderId));
+        gull.flock = this;
+    }
+
+    /**
+     * Sets where the leader is, moving the flock to the bucket for its new section if it changed.
+     */
+    private void setLeaderPos(@Nullable BlockPos pos) {
+        this.leaderPos = pos;
+        long section = pos != null ? SectionPos.asLong(pos) : Long.MAX_VALUE;
+        if (section == this.leaderSection) {
+            return;
+        }
+
+        if (this.leaderSection != Long.MAX_VALUE) {
+            List<FailgullFlock> flocks = this.sections.get(this.leaderSection);
+            if (flocks != null) {
+                flocks.remove(this);
+                if (flocks.isEmpty()) {
+                    this.sections.remove(this.leaderSection);
+                }
+            }
+        }
+        if (section != Long.MAX_VALUE) {
+            this.sections.computeIfAbsent(section, k -> new ArrayList<>()).add(this);
+        }
+        this.leaderSection = section;
+    }
+
+    private void handOff(Map<UUID, FailgullFlock> flocks) {
+        flocks.remove(this.leaderId, this);
+        this.setLeaderPos(null);
+        if (this.leader != null) {
+            this.leader.flock = null;
+            this.leader = null;
+        }
+
+        FailgullEntity oldest = null;
+        for (FailgullEntity member : this.members) {
+            if (member.isAlive() && (oldest == null || member.getId() < oldest.getId())) {
+                oldest = member;
+            }
+        }
+        if (oldest == null) {
+            for (FailgullEntity member : this.members) {
+                member.flock = null;
+            }
+            this.members.clear();
+            return;
+        }
+
+        this.members.remove(oldest);
+        // Members that were saved with the new leader may already have been loaded into a flock of their own
+        FailgullFlock target = flocks.get(oldest.getUUID());
+        if (target == null) {
+            target = this;
+            this.leaderId = oldest.getUUID();
+            flocks.put(this.leaderId, this);
+        }
+
+        target.leader = oldest;
+        target.setLeaderPos(oldest.blockPosition());
+        target.leaderMissingTicks = 0;
+        oldest.setIsFlockLeader(true);
+        oldest.setFlockLeader(Optional.empty());
+        oldest.flock = target;
+
+        List<FailgullEntity> members = new ArrayList<>(this.members);
+        this.members.clear();
+        for (FailgullEntity member : members) {
+            target.add(member);
+        }
+    }
+}
@@ -1,23 +1,44 @@
 package net.tropicraft.core.common.entity.underdasea;
 
 import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.util.Mth;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.EntityType;
 import net.minecraft.world.entity.animal.WaterAnimal;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.level.Level;
-import net.minecraft.world.level.block.state.BlockState;
-import net.minecraft.world.phys.Vec2;
 import net.minecraft.world.phys.Vec3;
+import net.tropicraft.core.common.entity.ai.fishies.FishSchool;
+import net.tropicraft.core.common.entity.ai.fishies.SwimmableVolume;
 
 public abstract class TropicraftFishEntity extends WaterAnimal {
 
     public float swimPitch = 0f;
     public float swimYaw = 0f;
 
-    public Vec2 targetVectorHeading;
-    public Vec3 targetVector;
+    // Yaw and pitch we are turning towards, as worked out by setTargetHeading
+    public boolean hasTargetHeading = false;
+    public float targetYaw = 0f;
+    public float targetPitch = 0f;
+
+    // Block we are swimming towards, if any
+    public boolean hasTargetVector = false;
+    public int targetX;
+    public int targetY;
+    public int targetZ;
+
+    // Trig of swimYaw/swimPitch, recomputed from the Mth sine table only when they change
+    private float cachedSwimYaw = Float.NaN;
+    private float cachedSwimPitch = Float.NaN;
+    private float sinSwimYaw;
+    private float cosSwimYaw;
+    private float sinSwimPitch;
+    private float headingX;
+    private float headingY;
+    private float headingZ;
+
+    private final BlockPos.MutableBlockPos checkPos = new BlockPos.MutableBlockPos();
 
     public int outOfWaterTime = 0;
     public float outOfWaterAngle = 0f;
@@ -28,6 +49,9 @@ public abstract class TropicraftFishEntity extends WaterAnimal {
     public float prevSwimPitch = 0f;
     public float prevSwimYaw = 0f;
 
+    // Below this much movement in a tick the client keeps its current rotation
+    private static final double MIN_TURN_MOTION_SQ = 1.0E-6;
+
     private float swimSpeedDefault = 1f;
     protected float swimSpeedCurrent = 0f;
     private float swimSpeedPanic = 2f;
@@ -53,6 +77,10 @@ public abstract class TropicraftFishEntity extends WaterAnimal {
 
     public Entity aggressTarget = null;
 
+    public FishSchool school = null;
+    // Set while the school is steering us, see SchoolSwimGoal
+    public boolean isSchooling = false;
+
     private boolean fishable = false;
 
     protected TropicraftFishEntity(final EntityType<? extends WaterAnimal> type, final Level world) {
@@ -77,27 +105,23 @@ public abstract class TropicraftFishEntity extends WaterAnimal {
                 double x = (this.getX() - this.xo);
                 double y = (this.getY() - this.yo);
                 double z = (this.getZ() - this.zo);
-                float yaw ;
-                float pitch;
 
                 this.prevSwimYaw = this.swimYaw;
                 this.prevSwimPitch = this.swimPitch;
 
-                if (this.getX() == this.xo && this.getZ() == this.zo) {
-                    yaw = this.swimYaw;
-                } else {
-                    yaw = (float) ((Math.atan2(z, x) * 180D) / Math.PI) - 90f;
+                // Only turn to face our motion when there is some, which also saves the atan2 while drifting
+                double horizontalSq = x * x + z * z;
+                if (horizontalSq > MIN_TURN_MOTION_SQ) {
+                    float yaw = (float) (Mth.atan2(z, x) * Mth.RAD_TO_DEG) - 90f;
+                    this.swimYaw = lerp(swimYaw, (int)-yaw, this.swimSpeedTurn*4);
                 }
-                if (this.getY() == this.yo) {
-                    pitch = this.swimPitch;
-                } else {
-                    pitch = (float) (-((Math.atan2(y, Mth.sqrt((float) (x * x + z * z))) * 180D) / Math.PI));
+                if (y != 0) {
+                    float pitch = (float) -(Mth.atan2(y, Math.sqrt(horizontalSq)) * Mth.RAD_TO_DEG);
+                    this.swimPitch = lerp(swimPitch, (int)-pitch, this.swimSpeedTurn*4);
                 }
 
-                this.swimYaw = lerp(swimYaw, (int)-yaw, this.swimSpeedTurn*4);
-                this.swimPitch = lerp(swimPitch, (int)-pitch, this.swimSpeedTurn*4);
-
-                setDeltaMovement(getDeltaMovement().multiply(0.98, 0.98, 0.98));
+                Vec3 motion = getDeltaMovement();
+                setDeltaMovement(motion.x * 0.98, motion.y * 0.98, motion.z * 0.98);
 
                 if (isNoAi() && isInWater()) {
                     fallVelocity = 0f;
@@ -112,9 +136,9 @@ public abstract class TropicraftFishEntity extends WaterAnimal {
                 swimSpeedTurn *= 1.8f;
             }
 
-            if (targetVectorHeading != null) {
-                swimYaw = lerp(swimYaw, -targetVectorHeading.x, swimSpeedTurn);
-                swimPitch = lerp(swimPitch, -targetVectorHeading.y, swimSpeedTurn);
+            if (hasTargetHeading) {
+                swimYaw = lerp(swimYaw, -targetYaw, swimSpeedTurn);
+                swimPitch = lerp(swimPitch, -targetPitch, swimSpeedTurn);
             }
         }
 
@@ -160,10 +184,11 @@ public abstract class TropicraftFishEntity extends WaterAnimal {
 
         // In water motion
         if (isInWater()) {
+            updateSwimTrig();
             setDeltaMovement(
-                    currentSpeed * Math.sin(this.swimYaw * (Math.PI / 180.0)),
-                    currentSpeed * Math.sin(this.swimPitch * (Math.PI / 180.0)),
-                    currentSpeed * Math.cos(this.swimYaw * (Math.PI / 180.0))
+                    currentSpeed * sinSwimYaw,
+                    currentSpeed * sinSwimPitch,
+                    currentSpeed * cosSwimYaw
             );
             fallVelocity = 0f;
         }
@@ -261,9 +286,11 @@ public abstract class TropicraftFishEntity extends WaterAnimal {
         }
 
         if (waterChecks) {
-            BlockPos bp = new BlockPos((int) posX, (int) posY, (int) posZ);
-            BlockState stateAtPos = level.getBlockState(bp);
-            if (!stateAtPos.getMaterial().isLiquid() || stateAtPos.getMaterial().isSolid()) {
+            checkPos.set((int) posX, (int) posY, (int) posZ);
+            boolean swimmable = level instanceof ServerLevel serverLevel
+                    ? SwimmableVolume.get(serverLevel).isSwimmable(serverLevel, checkPos)
+                    : SwimmableVolume.isSwimmable(level.getBlockState(checkPos));
+            if (!swimmable) {
                 return false;
             }
         }
@@ -272,16 +299,68 @@ public abstract class TropicraftFishEntity extends WaterAnimal {
         double x = (int) (posX - this.getX());
         double y = (int) (posY - this.getY());
         double z = (int) (posZ - this.getZ());
-        float yaw = (float) ((Math.atan2(z, x) * 180D) / Math.PI) - 90f;
-        float pitch = (float) (-((Math.atan2(y, Mth.sqrt((float) (x * x + z * z))) * 180D) / Math.PI));
-        targetVector = new Vec3((int) posX, (int) posY, (int) posZ);
-        targetVectorHeading = new Vec2(yaw, pitch);
+        float yaw = (float) (Mth.atan2(z, x) * Mth.RAD_TO_DEG) - 90f;
+        float pitch = (float) -(Mth.atan2(y, Math.sqrt(x * x + z * z)) * Mth.RAD_TO_DEG);
+        setTargetVector((int) posX, (int) posY, (int) posZ);
+        setTargetHeading(yaw, pitch);
         return true;
     }
 
 
+    /**
+     * Turns towards the given yaw and pitch, as worked out by setTargetHeading
+     */
+    public void setTargetHeading(float yaw, float pitch) {
+        if (!isNoAi()) {
+            hasTargetHeading = true;
+            targetYaw = yaw;
+            targetPitch = pitch;
+        }
+    }
+
+    public void setTargetVector(int x, int y, int z) {
+        hasTargetVector = true;
+        targetX = x;
+        targetY = y;
+        targetZ = z;
+    }
+
+    private void updateSwimTrig() {
+        if (swimYaw == cachedSwimYaw && swimPitch == cachedSwimPitch) {
+            return;
+        }
+        cachedSwimYaw = swimYaw;
+        cachedSwimPitch = swimPitch;
+
+        float yaw = swimYaw * Mth.DEG_TO_RAD;
+        sinSwimYaw = Mth.sin(yaw);
+        cosSwimYaw = Mth.cos(yaw);
+        sinSwimPitch = Mth.sin(swimPitch * Mth.DEG_TO_RAD);
+
+        float length = Mth.sqrt(sinSwimYaw * sinSwimYaw + sinSwimPitch * sinSwimPitch + cosSwimYaw * cosSwimYaw);
+        headingX = sinSwimYaw / length;
+        headingY = sinSwimPitch / length;
+        headingZ = cosSwimYaw / length;
+    }
+
+    public float getHeadingX() {
+        updateSwimTrig();
+        return headingX;
+    }
+
+    public float getHeadingY() {
+        updateSwimTrig();
+        return headingY;
+    }
+
+    public float getHeadingZ() {
+        updateSwimTrig();
+        return headingZ;
+    }
+
     public Vec3 getHeading() {
-        return new Vec3(Math.sin(this.swimYaw * (Math.PI / 180.0)), Math.sin(this.swimPitch * (Math.PI / 180.0)), Math.cos(this.swimYaw * (Math.PI / 180.0))).normalize();
+        updateSwimTrig();
+        return new Vec3(headingX, headingY, headingZ);
     }
 
     public void setRandomTargetHeadingForce(int maxTimes) {
@@ -295,9 +374,7 @@ public abstract class TropicraftFishEntity extends WaterAnimal {
     public boolean setRandomTargetHeading() {
         boolean result = false;
         int dist = 16;
-        Vec3 randBlock = new Vec3(getX() + randFlip(dist), getY() + randFlip(dist/2), getZ() + randFlip(dist));
-
-        result = this.setTargetHeading(randBlock.x, randBlock.y, randBlock.z, true);
+        result = this.setTargetHeading(getX() + randFlip(dist), getY() + randFlip(dist/2), getZ() + randFlip(dist), true);
 
         // Try to move towards a player
         if (this.approachPlayers) {
@@ -318,13 +395,13 @@ public abstract class TropicraftFishEntity extends WaterAnimal {
         double x = ent.getX() - this.getX();
         double y = ent.getY() - this.getY();
         double z = ent.getZ() - this.getZ();
-        float yaw = (float) ((Math.atan2(z, x) * 180D) / Math.PI) - 90F;
-        float pitch = (float) (-((Math.atan2(y, Mth.sqrt((float) (x * x + z * z))) * 180D) / Math.PI));
+        float yaw = (float) (Mth.atan2(z, x) * Mth.RAD_TO_DEG) - 90F;
+        float pitch = (float) -(Mth.atan2(y, Math.sqrt(x * x + z * z)) * Mth.RAD_TO_DEG);
 
-        if (targetVector == null) {
-            targetVector = new Vec3(ent.getX(), ent.getY() - 5 + random.nextInt(10), ent.getZ());
+        if (!hasTargetVector) {
+            setTargetVector(Mth.floor(ent.getX()), Mth.floor(ent.getY() - 5 + random.nextInt(10)), Mth.floor(ent.getZ()));
         }
-        targetVectorHeading = new Vec2(yaw + 180, -1 * pitch/2);
+        setTargetHeading(yaw + 180, -1 * pitch/2);
     }
 
     public int randFlip(int i) {
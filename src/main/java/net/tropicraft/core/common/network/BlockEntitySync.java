@@ -0,0 +1,134 @@
+package net.tropicraft.core.common.network;
+
+import io.netty.buffer.Unpooled;
+import net.minecraft.core.BlockPos;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.protocol.Packet;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.network.NetworkDirection;
+import net.minecraftforge.network.PacketDistributor;
+import net.tropicraft.Constants;
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Sends block entity updates to the players tracking the block entity's chunk, rather than to the whole dimension.
+ * <p>
+ * Updates are queued and sent at the end of the server tick, so any number of changes made to a block entity
+ * within one tick go out as a single packet per message type, built from the block entity's state at that point.
+ */
+@Mod.EventBusSubscriber(modid = Constants.MODID)
+public final class BlockEntitySync {
+    // Only touched from the server thread
+    private static final Map<Key, Pending<?>> PENDING = new LinkedHashMap<>();
+    private static final Map<Class<? extends TropicraftMessage>, Stats> STATS = new HashMap<>();
+
+    private BlockEntitySync() {
+    }
+
+    private record Key(ResourceKey<Level> dimension, long pos, Class<? extends TropicraftMessage> type) {
+    }
+
+    private record Pending<T extends BlockEntity>(T blockEntity, Function<T, ? extends TropicraftMessage> factory) {
+        TropicraftMessage createMessage() {
+            return this.factory.apply(this.blockEntity);
+        }
+    }
+
+    /**
+     * Bytes and packets sent for one message type, counting one packet per receiving player.
+     */
+    public static final class Stats {
+        private long packets;
+        private long bytes;
+
+        public long getPackets() {
+            return this.packets;
+        }
+
+        public long getBytes() {
+            return this.bytes;
+        }
+    }
+
+    /**
+     * Queues an update for the given block entity, merging it with any update of the same type already queued this tick.
+     * Does nothing on the client.
+     *
+     * @param type the message type, used to tell apart different updates for the same block entity
+     * @param factory builds the message from the block entity when the queue is flushed
+     */
+    public static <T extends BlockEntity, M extends TropicraftMessage> void queue(T blockEntity, Class<M> type, Function<T, M> factory) {
+        Level level = blockEntity.getLevel();
+        if (level == null || level.isClientSide()) {
+            return;
+        }
+
+        Key key = new Key(level.dimension(), blockEntity.getBlockPos().asLong(), type);
+        // Replace rather than keep what's queued, the block entity at this position may have been swapped out since
+        PENDING.put(key, new Pending<>(blockEntity, factory));
+    }
+
+    @SubscribeEvent
+    public static void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase != TickEvent.Phase.END || PENDING.isEmpty()) {
+            return;
+        }
+
+        Iterator<Map.Entry<Key, Pending<?>>> iterator = PENDING.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Key, Pending<?>> entry = iterator.next();
+            iterator.remove();
+            send(entry.getKey().type(), entry.getValue());
+        }
+    }
+
+    /**
+     * @return a read-only view of the counters for every message type sent so far this session
+     */
+    public static Map<Class<? extends TropicraftMessage>, Stats> getStats() {
+        return Collections.unmodifiableMap(STATS);
+    }
+
+    private static void send(Class<? extends TropicraftMessage> type, Pending<?> pending) {
+        BlockEntity blockEntity = pending.blockEntity();
+        if (blockEntity.isRemoved() || !(blockEntity.getLevel() instanceof ServerLevel level)) {
+            return;
+        }
+
+        BlockPos pos = blockEntity.getBlockPos();
+        List<ServerPlayer> players = level.getChunkSource().chunkMap.getPlayers(new ChunkPos(pos), false);
+        if (players.isEmpty()) {
+            return;
+        }
+
+        // Encode once and hand the same packet to every tracking player
+        FriendlyByteBuf buf = new FriendlyByteBuf(Unpooled.buffer());
+        int index = TropicraftPackets.INSTANCE.encodeMessage(pending.createMessage(), buf);
+        int bytes = buf.readableBytes();
+        Packet<?> packet = NetworkDirection.PLAY_TO_CLIENT.buildPacket(Pair.of(buf, index), TropicraftPackets.CHANNEL_NAME).getThis();
+
+        LevelChunk chunk = level.getChunkAt(pos);
+        PacketDistributor.TRACKING_CHUNK.with(() -> chunk).send(packet);
+
+        Stats stats = STATS.computeIfAbsent(type, t -> new Stats());
+        stats.packets += players.size();
+        stats.bytes += (long) bytes * players.size();
+    }
+}
@@ -0,0 +1,58 @@
+package net.tropicraft.core.common.network.message;
+
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraftforge.network.NetworkEvent;
+import net.tropicraft.core.common.block.tileentity.SyncedBlockEntity;
+
+import java.util.function.Supplier;
+
+/**
+ * Carries the fields of a {@link SyncedBlockEntity} that changed during the last tick.
+ */
+public class MessageBlockEntityFields extends MessageTileEntity<SyncedBlockEntity> {
+	private int fields;
+
+	// Set on the server, where the fields are written straight from the block entity
+	private SyncedBlockEntity source;
+
+	// Set on the client, holding the encoded fields until they can be applied on the main thread
+	private FriendlyByteBuf payload;
+
+	public MessageBlockEntityFields() {
+		super();
+	}
+
+	public MessageBlockEntityFields(final SyncedBlockEntity blockEntity) {
+		super(blockEntity);
+		source = blockEntity;
+		fields = blockEntity.consumeDirtyFields();
+	}
+
+	public static void encode(final MessageBlockEntityFields message, final FriendlyByteBuf buf) {
+		MessageTileEntity.encode(message, buf);
+		buf.writeVarInt(message.fields);
+		message.source.writeFields(message.fields, buf);
+	}
+
+	public static MessageBlockEntityFields decode(final FriendlyByteBuf buf) {
+		final MessageBlockEntityFields message = new MessageBlockEntityFields();
+		MessageTileEntity.decode(message, buf);
+		message.fields = buf.readVarInt();
+		message.payload = new FriendlyByteBuf(buf.readBytes(buf.readableBytes()));
+		return message;
+	}
+
+	public static void handle(final MessageBlockEntityFields message, Supplier<NetworkEvent.Context> ctx) {
+		ctx.get().enqueueWork(() -> {
+			try {
+				final SyncedBlockEntity blockEntity = message.getClientTileEntity();
+				if (blockEntity != null) {
+					blockEntity.readFields(message.fields, message.payload);
+				}
+			} finally {
+				message.payload.release();
+			}
+		});
+		ctx.get().setPacketHandled(true);
+	}
+}
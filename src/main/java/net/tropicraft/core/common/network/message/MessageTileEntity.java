@@ -1,6 +1,5 @@
 package net.tropicraft.core.common.network.message;
 
-import com.google.common.reflect.TypeToken;
 import net.minecraft.client.Minecraft;
 import net.minecraft.core.BlockPos;
 import net.minecraft.network.FriendlyByteBuf;
@@ -10,12 +9,18 @@ import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.fml.DistExecutor;
 import net.tropicraft.core.common.network.TropicraftMessage;
 
+import java.util.IdentityHashMap;
+import java.util.Map;
+
 /**
  * Based on <a href="https://github.com/SleepyTrousers/EnderCore">EnderCore</a>, with permission.
  *
  * Licensed under CC0.
  */
 public abstract class MessageTileEntity<T extends BlockEntity> implements TropicraftMessage {
+	// Filled in when the messages are registered, so handling a message never needs to inspect its generic type
+	private static final Map<Class<?>, Class<? extends BlockEntity>> TILE_TYPES = new IdentityHashMap<>();
+
 	protected long pos;
 	@Deprecated
 	protected int x;
@@ -30,6 +35,13 @@ public abstract class MessageTileEntity<T extends BlockEntity> implements Tropic
 		pos = tile.getBlockPos().asLong();
 	}
 
+	/**
+	 * Sets the block entity class that messages of the given type apply to.
+	 */
+	public static <M extends MessageTileEntity<T>, T extends BlockEntity> void registerTileType(Class<M> messageType, Class<T> tileType) {
+		TILE_TYPES.put(messageType, tileType);
+	}
+
 	protected static void encode(final MessageTileEntity<?> message, FriendlyByteBuf buf) {
 		buf.writeLong(message.pos);
 	}
@@ -60,10 +72,10 @@ public abstract class MessageTileEntity<T extends BlockEntity> implements Tropic
 		if (te == null) {
 			return null;
 		}
-		TypeToken<?> teType = TypeToken.of(getClass()).resolveType(MessageTileEntity.class.getTypeParameters()[0]);
-		if (teType.isSubtypeOf(te.getClass())) {
-			return (T) te;
+		Class<? extends BlockEntity> tileType = TILE_TYPES.get(getClass());
+		if (tileType == null) {
+			throw new IllegalStateException("No block entity type registered for " + getClass().getSimpleName());
 		}
-		return null;
+		return tileType.isInstance(te) ? (T) te : null;
 	}
 }